@@ -0,0 +1,66 @@
+package com.madeeasy.benchmark;
+
+import com.madeeasy.config.HttpClientConfig;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pooled Apache HttpClient RestTemplate from {@link HttpClientConfig} with the plain
+ * HttpURLConnection based one we used before, both calling a local OpenWeather stub.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="HttpClientBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class HttpClientBenchmark {
+
+    @Param({"simple", "pooled"})
+    public String client;
+
+    private OpenWeatherStubServer stubServer;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private String weatherUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        stubServer = new OpenWeatherStubServer().start();
+        weatherUrl = stubServer.weatherUrl() + "?lat=22.4586&lon=87.7745&units=metric&appid=benchmark";
+
+        if ("pooled".equals(client)) {
+            HttpClientConfig config = new HttpClientConfig();
+            WeatherProperties properties = new WeatherProperties();
+            PoolingHttpClientConnectionManager connectionManager = config.openWeatherConnectionManager(properties);
+            httpClient = config.openWeatherHttpClient(connectionManager, properties);
+            restTemplate = config.restTemplate(new RestTemplateBuilder(), httpClient);
+        } else {
+            restTemplate = new RestTemplateBuilder().requestFactory(SimpleClientHttpRequestFactory::new).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        stubServer.close();
+    }
+
+    @Benchmark
+    public String fetchWeather() {
+        return restTemplate.getForObject(weatherUrl, String.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.madeeasy.benchmark;
+
+import com.madeeasy.WeatherInfoApplication;
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.service.WeatherService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the database backed request paths with the default (development) logging and with the prod profile.
+ * The default profile prints every SQL statement twice (show-sql and org.hibernate.SQL at DEBUG, both formatted)
+ * from the request thread; prod logs JSON at INFO through an async appender. Stdout goes to a file under target/,
+ * standing in for the container log pipe, so the cost of writing is measured too.
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="LoggingProfileBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingProfileBenchmark {
+
+    private static final String PIN_CODE = "721151";
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+    private static final int MISS_PIN_CODES = 1_000;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private WeatherService weatherService;
+    private WeatherInfoCache weatherInfoCache;
+    private long misses;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path log = Path.of("target", "logging-benchmark-" + profile + ".log");
+        Files.createDirectories(log.getParent());
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(log.toFile())), true));
+
+        context = new SpringApplicationBuilder(WeatherInfoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=" + profile,
+                        "--spring.datasource.url=jdbc:h2:mem:logging_" + profile + ";DB_CLOSE_DELAY=-1",
+                        "--weather.prewarm.cron=-",
+                        "--weather.resilience.requests-per-second=100000000",
+                        "--weather.resilience.max-concurrent-calls=1000",
+                        // Canned answers put every pin code on the same spot; keep misses going upstream
+                        "--weather.nearby.reuse-radius-km=0");
+        context.getBean(RestTemplate.class).setRequestFactory(new WeatherRequestPathBenchmark.CannedOpenWeather());
+        weatherService = context.getBean(WeatherService.class);
+        weatherInfoCache = context.getBean(WeatherInfoCache.class);
+
+        weatherService.getWeatherInfo(PIN_CODE, DATE);
+        List<PinCodeLocation> missLocations = new ArrayList<>();
+        for (int i = 0; i < MISS_PIN_CODES; i++) {
+            missLocations.add(PinCodeLocation.builder()
+                    .pinCode(String.valueOf(100_000 + i)).latitude(22.4586).longitude(87.7745).build());
+        }
+        context.getBean(PinCodeLocationRepository.class).saveAll(missLocations);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Row is in the database but not in memory: one select with its joins
+    @Benchmark
+    public WeatherInfo databaseHit() {
+        weatherInfoCache.invalidate(new WeatherCacheKey(PIN_CODE, DATE));
+        return weatherService.getWeatherInfo(PIN_CODE, DATE);
+    }
+
+    // New (pinCode, date): selects, canned OpenWeather answer, inserts
+    @Benchmark
+    public WeatherInfo cacheMiss() {
+        long miss = misses++;
+        String pinCode = String.valueOf(100_000 + miss % MISS_PIN_CODES);
+        return weatherService.getWeatherInfo(pinCode, DATE.minusDays(1 + miss / MISS_PIN_CODES));
+    }
+}
@@ -0,0 +1,82 @@
+package com.madeeasy.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.mapper.OpenWeatherMapper;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one OpenWeather response into our entities: the old {@code Map<String, Object>} tree with casts
+ * vs. binding straight into {@link CurrentWeatherResponse}. Run with the gc profiler to see allocation per response:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="OpenWeatherDecodingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenWeatherDecodingBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final byte[] payload = OpenWeatherStubServer.WEATHER_BODY.getBytes(StandardCharsets.UTF_8);
+    private final PinCodeLocation location = PinCodeLocation.builder().pinCode("721151").build();
+    private final LocalDate forDate = LocalDate.of(2024, 11, 9);
+
+    @Benchmark
+    public void typedRecords(Blackhole blackhole) throws IOException {
+        CurrentWeatherResponse response = objectMapper.readValue(payload, CurrentWeatherResponse.class);
+        blackhole.consume(OpenWeatherMapper.toWeatherInfo(response, location, "721151", forDate));
+        blackhole.consume(OpenWeatherMapper.toWeatherDetail(response));
+    }
+
+    // The mapping fetchWeatherData did before the typed records, kept here as the baseline
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void mapTree(Blackhole blackhole) throws IOException {
+        Map<String, Object> weatherData = objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {
+        });
+
+        Map<String, Object> sys = (Map<String, Object>) weatherData.get("sys");
+        List<Map<String, Object>> weatherList = (List<Map<String, Object>>) weatherData.get("weather");
+        Map<String, Object> weatherItem = weatherList.get(0);
+        Map<String, Object> main = (Map<String, Object>) weatherData.get("main");
+        Map<String, Object> wind = (Map<String, Object>) weatherData.get("wind");
+
+        blackhole.consume(WeatherInfo.builder()
+                .pinCode("721151")
+                .date(forDate)
+                .country((String) sys.get("country"))
+                .sunriseTime((Integer) sys.get("sunrise"))
+                .sunsetTime((Integer) sys.get("sunset"))
+                .timezoneOffset((Integer) weatherData.get("timezone"))
+                .location(location)
+                .build());
+        blackhole.consume(WeatherDetail.builder()
+                .main((String) weatherItem.get("main"))
+                .description((String) weatherItem.get("description"))
+                .icon((String) weatherItem.get("icon"))
+                .temp((double) main.get("temp"))
+                .feelsLike((double) main.get("feels_like"))
+                .humidity((Integer) main.get("humidity"))
+                .pressure((Integer) main.get("pressure"))
+                .cloudiness((Integer) ((Map<String, Object>) weatherData.get("clouds")).get("all"))
+                .windSpeed((double) wind.get("speed"))
+                .visibility((Integer) weatherData.get("visibility"))
+                .build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.madeeasy.benchmark;
+
+import com.madeeasy.geo.PinCodeGeoIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the pin code geo index on a synthetic table the size of the Indian pin code list (~19k rows,
+ * ~700 district names): how long the startup load takes and what a lookup costs.
+ * Run with the gc profiler to confirm lookups do not allocate:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PinCodeGeoIndexBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PinCodeGeoIndexBenchmark {
+
+    private static final int PIN_CODES = 19_000;
+
+    private byte[] csv;
+    private PinCodeGeoIndex index;
+    private String[] probes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("pinCode,latitude,longitude,cityName\n");
+        for (int i = 0; i < PIN_CODES; i++) {
+            builder.append(110_001 + i * 43).append(',')
+                    .append(8 + (i % 2900) / 100.0).append(',')
+                    .append(68 + (i % 2900) / 100.0).append(",District ").append(i % 700).append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        index = PinCodeGeoIndex.load(new ByteArrayInputStream(csv));
+        probes = new String[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = String.valueOf(110_001 + ThreadLocalRandom.current().nextInt(PIN_CODES) * 43);
+        }
+        System.out.printf("%n%d pin codes, %d KB CSV, ~%d KB on heap%n",
+                index.size(), csv.length / 1024, index.estimatedBytes() / 1024);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public PinCodeGeoIndex load() {
+        return PinCodeGeoIndex.load(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void lookup(Blackhole blackhole) {
+        int slot = index.slot(probes[ThreadLocalRandom.current().nextInt(probes.length)]);
+        blackhole.consume(index.latitude(slot));
+        blackhole.consume(index.longitude(slot));
+        blackhole.consume(index.cityName(slot));
+    }
+}
@@ -0,0 +1,99 @@
+package com.madeeasy.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a single weather response and a batch of {@value #BATCH_SIZE} in each
+ * {@link ResponseFormat}, with the mappers the application builds. Payload sizes are printed once per fork:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ResponseFormatBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @Param({"JSON", "CBOR"})
+    private ResponseFormat format;
+
+    private WeatherInfoResponse single;
+    private BatchWeatherResponse batch;
+    private ObjectWriter singleWriter;
+    private ObjectWriter batchWriter;
+    private ObjectReader singleReader;
+    private ObjectReader batchReader;
+    private byte[] singleBytes;
+    private byte[] batchBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper mapper = format == ResponseFormat.CBOR ? ResponseFormat.cborMapper(jsonMapper) : jsonMapper;
+        single = response("721151", 0);
+        Map<String, WeatherInfoResponse> results = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String pinCode = String.valueOf(700001 + i);
+            results.put(pinCode, response(pinCode, i));
+        }
+        batch = new BatchWeatherResponse(DATE, results, Map.of());
+
+        singleWriter = mapper.writerFor(WeatherInfoResponse.class);
+        batchWriter = mapper.writerFor(BatchWeatherResponse.class);
+        singleReader = mapper.readerFor(WeatherInfoResponse.class);
+        batchReader = mapper.readerFor(BatchWeatherResponse.class);
+        singleBytes = singleWriter.writeValueAsBytes(single);
+        batchBytes = batchWriter.writeValueAsBytes(batch);
+        System.out.printf("%n%s payload: single %d bytes, batch of %d %d bytes%n", format, singleBytes.length,
+                BATCH_SIZE, batchBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeSingle() throws IOException {
+        return singleWriter.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public WeatherInfoResponse decodeSingle() throws IOException {
+        return singleReader.readValue(singleBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeBatch() throws IOException {
+        return batchWriter.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public BatchWeatherResponse decodeBatch() throws IOException {
+        return batchReader.readValue(batchBytes);
+    }
+
+    // Values shaped like what OpenWeather returns for Indian pin codes
+    private static WeatherInfoResponse response(String pinCode, int i) {
+        return new WeatherInfoResponse((long) i + 1, pinCode, DATE, "IN", 19800, 1731110820 + i, 1731151260 + i,
+                Instant.parse("2024-11-09T06:30:12.482915Z").plusSeconds(i),
+                new WeatherInfoResponse.Location((long) i + 1, pinCode, 22.4586 + i / 1000.0, 87.7745 + i / 1000.0,
+                        "Tamluk"),
+                List.of(new WeatherInfoResponse.Detail((long) i + 1, "Clear", "clear sky", "01d", 28.2 + i / 10.0,
+                        30.11, 57, 1012, 0, 3.6, 10000)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.madeeasy.benchmark;
+
+import com.madeeasy.WeatherInfoApplication;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.WeatherInfoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link WeatherInfoRepository#findByPinCodeAndDate} as weather_info grows, with and without
+ * the unique (pin_code, date) index. Rows are spread over ~19k pin codes, one row per pin code per day.
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="WeatherInfoLookupBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class WeatherInfoLookupBenchmark {
+
+    private static final int PIN_CODES = 19_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WeatherInfoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:lookup_" + rows + "_" + indexed + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type=WARN");
+        weatherInfoRepository = context.getBean(WeatherInfoRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            jdbcTemplate.execute("ALTER TABLE weather_info DROP CONSTRAINT uk_weather_info_pin_code_date");
+        }
+        jdbcTemplate.update("""
+                INSERT INTO weather_info (id, pin_code, date, country, timezone_offset, sunrise_time, sunset_time)
+                SELECT X, CAST(100000 + MOD(X, ?) AS VARCHAR), DATEADD('DAY', X / ?, DATE '2000-01-01'),
+                       'IN', 19800, 1731111472, 1731151661
+                FROM SYSTEM_RANGE(0, ? - 1)
+                """, PIN_CODES, PIN_CODES, rows);
+        jdbcTemplate.update("""
+                INSERT INTO weather_detail (id, main, description, icon, temp, feels_like, humidity, pressure,
+                                            cloudiness, wind_speed, visibility, weather_info_id)
+                SELECT X, 'Clear', 'clear sky', '01d', 28.2, 29.4, 57, 1015, 0, 3.31, 10000, X
+                FROM SYSTEM_RANGE(0, ? - 1)
+                """, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WeatherInfo findByPinCodeAndDate() {
+        long row = ThreadLocalRandom.current().nextLong(rows);
+        String pinCode = String.valueOf(100_000 + row % PIN_CODES);
+        LocalDate date = FIRST_DAY.plusDays(row / PIN_CODES);
+        return weatherInfoRepository.findByPinCodeAndDate(pinCode, date).orElseThrow();
+    }
+}
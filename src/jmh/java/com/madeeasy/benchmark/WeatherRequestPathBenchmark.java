@@ -0,0 +1,163 @@
+package com.madeeasy.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.WeatherInfoApplication;
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.service.WeatherService;
+import com.madeeasy.service.impl.WeatherServiceImpl;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages of a {@code GET /api/weather} request, each measured on its own against the real application context
+ * (H2, caches, Jackson). OpenWeather is replaced by a request factory on the application's RestTemplate that answers
+ * with canned payloads in memory, so the miss path includes decoding but no network.
+ * <p>
+ * Record a baseline with the gc profiler and JSON output, then compare the next run against it:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="WeatherRequestPathBenchmark -prof gc -rf json -rff target/jmh-baseline.json"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherRequestPathBenchmark {
+
+    private static final String PIN_CODE = "721151";
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+    private static final int MISS_PIN_CODES = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private WeatherService weatherService;
+    private WeatherServiceImpl weatherServiceImpl;
+    private WeatherResponseCache weatherResponseCache;
+    private ObjectMapper objectMapper;
+    private WeatherInfo weatherInfo;
+    private PinCodeLocation location;
+    private long misses;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WeatherInfoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:request_path;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type=WARN",
+                        "--weather.prewarm.cron=-",
+                        // Measure our own path, not the upstream quota
+                        "--weather.resilience.requests-per-second=100000000",
+                        "--weather.resilience.max-concurrent-calls=1000",
+                        // Canned answers put every pin code on the same spot; keep misses going upstream
+                        "--weather.nearby.reuse-radius-km=0");
+        context.getBean(RestTemplate.class).setRequestFactory(new CannedOpenWeather());
+
+        weatherService = context.getBean(WeatherService.class);
+        weatherServiceImpl = context.getBean(WeatherServiceImpl.class);
+        weatherResponseCache = context.getBean(WeatherResponseCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        // A past date, so freshness never schedules a refresh for the hit path
+        weatherInfo = weatherService.getWeatherInfo(PIN_CODE, DATE);
+        weatherResponseCache.put(weatherInfo, ResponseFormat.JSON);
+        PinCodeLocationRepository pinCodeLocationRepository = context.getBean(PinCodeLocationRepository.class);
+        location = pinCodeLocationRepository.findByPinCode(PIN_CODE).orElseThrow();
+        // Misses are for pin codes we have seen before, only the weather for the date is new
+        List<PinCodeLocation> missLocations = new ArrayList<>();
+        for (int i = 0; i < MISS_PIN_CODES; i++) {
+            missLocations.add(PinCodeLocation.builder()
+                    .pinCode(String.valueOf(100_000 + i)).latitude(22.4586).longitude(87.7745).build());
+        }
+        pinCodeLocationRepository.saveAll(missLocations);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // L1 hit: what most requests cost once the cache is warm
+    @Benchmark
+    public WeatherInfo getWeatherInfoCacheHit() {
+        return weatherService.getWeatherInfo(PIN_CODE, DATE);
+    }
+
+    // Every call is a new (pinCode, date) for a known pin code: L1 and database miss, canned OpenWeather answer,
+    // insert of info and detail
+    @Benchmark
+    public WeatherInfo getWeatherInfoCacheMiss() {
+        long miss = misses++;
+        String pinCode = String.valueOf(100_000 + miss % MISS_PIN_CODES);
+        return weatherService.getWeatherInfo(pinCode, DATE.minusDays(1 + miss / MISS_PIN_CODES));
+    }
+
+    // URL building, JSON decoding and mapping to entities, nothing stored
+    @Benchmark
+    public WeatherInfo fetchWeatherData() {
+        return weatherServiceImpl.fetchWeatherData(location, PIN_CODE, DATE);
+    }
+
+    // What the controller used to do: hand the entity graph to Jackson
+    @Benchmark
+    public byte[] serializeEntity() throws IOException {
+        return objectMapper.writeValueAsBytes(weatherInfo);
+    }
+
+    // Current controller miss: map to the response record, then serialize
+    @Benchmark
+    public byte[] serializeResponseRecord() throws IOException {
+        return objectMapper.writeValueAsBytes(WeatherInfoResponse.from(weatherInfo));
+    }
+
+    // Current controller hit: bytes come out of the response cache as they are
+    @Benchmark
+    public byte[] cachedResponseBytes() {
+        return weatherResponseCache.get(new WeatherCacheKey(PIN_CODE, DATE), ResponseFormat.JSON).orElseThrow().body();
+    }
+
+    /**
+     * Answers OpenWeather URLs from memory with the same payloads the stub server uses.
+     */
+    static class CannedOpenWeather implements ClientHttpRequestFactory {
+
+        private static final byte[] WEATHER = OpenWeatherStubServer.WEATHER_BODY.getBytes(StandardCharsets.UTF_8);
+        private static final byte[] GEOCODING = OpenWeatherStubServer.GEOCODING_BODY.getBytes(StandardCharsets.UTF_8);
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            MockClientHttpResponse response = new MockClientHttpResponse(
+                    uri.getPath().startsWith("/geo/") ? GEOCODING : WEATHER, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(response);
+            return request;
+        }
+    }
+}
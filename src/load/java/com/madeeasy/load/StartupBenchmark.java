@@ -0,0 +1,230 @@
+package com.madeeasy.load;
+
+import com.madeeasy.support.OpenWeatherStubServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Startup benchmark of the packaged application: every run launches it as a new JVM and measures
+ * <ul>
+ *     <li>time to first request: process start until the readiness probe is UP and a {@code GET /api/weather}
+ *     has answered 200, what a load balancer adding the instance would see;</li>
+ *     <li>time to steady throughput: process start until a {@code window} of closed-loop load first reaches
+ *     {@code steady-fraction} of the rate the run settles at (the median of its last third of windows).</li>
+ * </ul>
+ * Build the fast-start layout first, then run:
+ * mvn -Pfast-start package -DskipTests
+ * mvn -Pload-test test-compile exec:exec -Dload.main=com.madeeasy.load.StartupBenchmark -Dload.args="--runs=5"
+ * <p>
+ * Options (defaults in brackets): dir [target/fast-start], variants [jit,aot,cds,aot-cds,fast-start], runs [3],
+ * profiles [prod], concurrency [16], pin-codes [200], window [500ms], duration [20s], steady-fraction [0.9],
+ * upstream-latency [20ms]. Application logs go to {@code dir/startup-logs}. Use the profiles the build was made with.
+ */
+public final class StartupBenchmark {
+
+    private record Variant(String name, List<String> jvmArgs, String extraProfile) {
+    }
+
+    private record Result(long firstRequestMillis, long steadyMillis, double steadyThroughput) {
+    }
+
+    private static final String AOT = "-Dspring.aot.enabled=true";
+    private static final String CDS = "-XX:SharedArchiveFile=application.jsa";
+
+    private static final Map<String, Variant> VARIANTS = Map.of(
+            "jit", new Variant("jit", List.of(), null),
+            "aot", new Variant("aot", List.of(AOT), null),
+            "cds", new Variant("cds", List.of(CDS), null),
+            "aot-cds", new Variant("aot-cds", List.of(AOT, CDS), null),
+            // Everything: AOT, CDS, lazy initialization and the startup warm-up
+            "fast-start", new Variant("fast-start", List.of(AOT, CDS), "fast-start"));
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = WeatherLoadHarness.parse(args);
+        Path dir = Path.of(options.getOrDefault("dir", "target/fast-start")).toAbsolutePath();
+        List<String> variants = List.of(options.getOrDefault("variants", "jit,aot,cds,aot-cds,fast-start").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        String profiles = options.getOrDefault("profiles", "prod");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        int pinCodes = Integer.parseInt(options.getOrDefault("pin-codes", "200"));
+        Duration window = WeatherLoadHarness.duration(options.getOrDefault("window", "500ms"));
+        Duration duration = WeatherLoadHarness.duration(options.getOrDefault("duration", "20s"));
+        double steadyFraction = Double.parseDouble(options.getOrDefault("steady-fraction", "0.9"));
+        Duration upstreamLatency = WeatherLoadHarness.duration(options.getOrDefault("upstream-latency", "20ms"));
+
+        Path jar = application(dir);
+        Files.createDirectories(dir.resolve("startup-logs"));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        Map<String, List<Result>> results = new LinkedHashMap<>();
+        try (OpenWeatherStubServer stub = new OpenWeatherStubServer().latency(upstreamLatency).start()) {
+            // Rounds rather than variant after variant, so drift on the machine is spread over all of them
+            for (int run = 1; run <= runs; run++) {
+                for (String name : variants) {
+                    Variant variant = VARIANTS.get(name);
+                    if (variant == null) {
+                        throw new IllegalArgumentException("Unknown variant " + name + ", expected one of "
+                                + VARIANTS.keySet());
+                    }
+                    List<String> command = command(variant, jar, profiles, stub);
+                    Result result = run(command, dir, dir.resolve("startup-logs/" + name + "-" + run + ".log"),
+                            client, concurrency, pinCodes, window, duration, steadyFraction);
+                    System.out.printf("run %d %-10s first request %6d ms, steady after %6d ms at %.0f req/s%n",
+                            run, name, result.firstRequestMillis(), result.steadyMillis(), result.steadyThroughput());
+                    results.computeIfAbsent(name, key -> new ArrayList<>()).add(result);
+                }
+            }
+        }
+
+        System.out.printf("%nMedian of %d runs%n%-10s %18s %18s %14s%n", runs, "variant", "first request ms",
+                "steady after ms", "steady req/s");
+        results.forEach((name, runResults) -> System.out.printf("%-10s %18d %18d %14.0f%n", name,
+                median(runResults.stream().mapToLong(Result::firstRequestMillis).toArray()),
+                median(runResults.stream().mapToLong(Result::steadyMillis).toArray()),
+                (double) median(runResults.stream().mapToLong(result -> (long) result.steadyThroughput()).toArray())));
+    }
+
+    private static Path application(Path dir) throws IOException {
+        if (!Files.isRegularFile(dir.resolve("application.jsa"))) {
+            throw new IllegalStateException("No CDS archive in " + dir + ", run mvn -Pfast-start package first");
+        }
+        try (var files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + dir));
+        }
+    }
+
+    private static List<String> command(Variant variant, Path jar, String profiles, OpenWeatherStubServer stub)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.jvmArgs());
+        // Relative to the working directory, as in the training run, so the CDS class path matches
+        command.addAll(List.of("-jar", jar.getFileName().toString(),
+                "--server.port=" + freePort(),
+                "--spring.profiles.active=" + profiles + (variant.extraProfile() != null ? "," + variant.extraProfile() : ""),
+                "--logging.level.root=WARN",
+                "--weather.prewarm.cron=-",
+                "--weather.retention.cron=-",
+                "--weather.nearby.reuse-radius-km=0",
+                "--weather.resilience.requests-per-second=10000",
+                "--weather.open-weather.weather-url=" + stub.weatherUrl(),
+                "--weather.open-weather.geocoding-url=" + stub.geocodingUrl()));
+        return command;
+    }
+
+    private static Result run(List<String> command, Path dir, Path log, HttpClient client, int concurrency,
+                              int pinCodes, Duration window, Duration duration, double steadyFraction)
+            throws Exception {
+        String port = command.stream().filter(arg -> arg.startsWith("--server.port="))
+                .map(arg -> arg.substring("--server.port=".length())).findFirst().orElseThrow();
+        String baseUrl = "http://127.0.0.1:" + port;
+        String weatherUrl = baseUrl + "/api/weather?forDate=" + LocalDate.now() + "&pinCode=";
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(dir.toFile()).redirectErrorStream(true)
+                .redirectOutput(log.toFile()).start();
+        try {
+            awaitReady(client, baseUrl + "/actuator/health/readiness", process, log);
+            int status = get(client, weatherUrl + 100_000);
+            if (status != 200) {
+                throw new IllegalStateException("First request answered " + status + ", see " + log);
+            }
+            long firstRequest = System.nanoTime() - launched;
+
+            int windowCount = (int) (duration.toNanos() / window.toNanos());
+            AtomicLongArray completed = new AtomicLongArray(windowCount);
+            long loadStart = System.nanoTime();
+            long end = loadStart + duration.toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < concurrency; i++) {
+                    clients.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            int pinCode = 100_000 + ThreadLocalRandom.current().nextInt(pinCodes);
+                            if (get(client, weatherUrl + pinCode) == 200) {
+                                int index = (int) ((System.nanoTime() - loadStart) / window.toNanos());
+                                if (index < windowCount) {
+                                    completed.incrementAndGet(index);
+                                }
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            long[] counts = new long[windowCount];
+            Arrays.setAll(counts, completed::get);
+            long steady = median(Arrays.copyOfRange(counts, windowCount - windowCount / 3, windowCount));
+            int reached = 0;
+            while (reached < windowCount - 1 && counts[reached] < steadyFraction * steady) {
+                reached++;
+            }
+            long steadyAt = loadStart - launched + (reached + 1) * window.toNanos();
+            return new Result(TimeUnit.NANOSECONDS.toMillis(firstRequest), TimeUnit.NANOSECONDS.toMillis(steadyAt),
+                    steady * 1_000_000_000.0 / window.toNanos());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void awaitReady(HttpClient client, String readinessUrl, Process process, Path log)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (get(client, readinessUrl) != 200) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Application not ready after 2 minutes, see " + log);
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    // -1 while nothing listens on the port yet
+    private static int get(HttpClient client, String url) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,196 @@
+package com.madeeasy.load;
+
+import com.madeeasy.WeatherInfoApplication;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of {@code GET /api/weather}: starts the OpenWeather stub and the application on random
+ * ports, then keeps {@code concurrency} clients busy with a Zipf-distributed pin code workload and records every
+ * request's latency in an HdrHistogram. Run it the same way for every release to get a comparable capacity number:
+ * mvn -Pload-test test-compile exec:exec -Dload.args="--concurrency=64 --duration=60s --upstream-latency=80ms"
+ * <p>
+ * Options (defaults in brackets): concurrency [32], pin-codes [19000], zipf-exponent [1.0], warmup [10s],
+ * duration [30s], upstream-latency [50ms], upstream-error-rate [0.0], date [today], out [target/load/latency.hgrm].
+ * Any other {@code --name=value} is handed to the application, e.g. {@code --weather.resilience.requests-per-second=500}.
+ * Being closed loop, a stall also stops new requests from being sent, so the tail is a lower bound.
+ * <p>
+ * The report also gives the process CPU time spent in the measurement window and the throughput per CPU-second.
+ * The stub and the clients run in the same JVM as the application, so that figure covers all three; compare it
+ * between runs on the same host, never as the application's cost alone.
+ */
+public final class WeatherLoadHarness {
+
+    private static final Set<String> OPTIONS = Set.of("concurrency", "pin-codes", "zipf-exponent", "warmup",
+            "duration", "upstream-latency", "upstream-error-rate", "date", "out");
+
+    private WeatherLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int pinCodes = Integer.parseInt(options.getOrDefault("pin-codes", "19000"));
+        double exponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration measurement = duration(options.getOrDefault("duration", "30s"));
+        Duration upstreamLatency = duration(options.getOrDefault("upstream-latency", "50ms"));
+        double upstreamErrorRate = Double.parseDouble(options.getOrDefault("upstream-error-rate", "0.0"));
+        LocalDate date = LocalDate.parse(options.getOrDefault("date", LocalDate.now().toString()));
+        Path out = Path.of(options.getOrDefault("out", "target/load/latency.hgrm"));
+
+        try (OpenWeatherStubServer stub = new OpenWeatherStubServer().latency(upstreamLatency)
+                .errorRate(upstreamErrorRate).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(WeatherInfoApplication.class)
+                     .run(applicationArgs(options, stub))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://127.0.0.1:" + port + "/api/weather?forDate=" + date + "&pinCode=";
+
+            ZipfSampler sampler = new ZipfSampler(pinCodes, exponent);
+            Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+            Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+            System.out.printf("Driving %s with %d clients, %d pin codes (zipf %.2f), upstream %d ms / %.1f%% errors%n",
+                    baseUrl, concurrency, pinCodes, exponent, upstreamLatency.toMillis(), upstreamErrorRate * 100);
+
+            long warmupEnd = System.nanoTime() + warmup.toNanos();
+            long end = warmupEnd + measurement.toNanos();
+            long cpuStart;
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < concurrency; i++) {
+                    clients.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            String pinCode = String.valueOf(100_000 + sampler.next());
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + pinCode))
+                                    .timeout(Duration.ofSeconds(30)).build();
+                            long start = System.nanoTime();
+                            int status;
+                            try {
+                                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            } catch (IOException e) {
+                                status = -1;
+                            }
+                            long latency = System.nanoTime() - start;
+                            if (start >= warmupEnd) {
+                                recorder.recordValue(Math.min(latency, TimeUnit.SECONDS.toNanos(60)));
+                                statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+                // Warmup latencies are thrown away with the first interval
+                TimeUnit.NANOSECONDS.sleep(warmup.toNanos());
+                recorder.getIntervalHistogram();
+                cpuStart = processCpuTime();
+            }
+            Duration cpu = Duration.ofNanos(processCpuTime() - cpuStart);
+
+            Histogram histogram = recorder.getIntervalHistogram();
+            report(histogram, statuses, measurement, cpu, stub, System.out);
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            try (PrintStream file = new PrintStream(Files.newOutputStream(out))) {
+                histogram.outputPercentileDistribution(file, 1_000_000.0);
+            }
+            System.out.println("Full percentile distribution written to " + out);
+        }
+    }
+
+    // Later arguments win, so anything passed through can override these defaults
+    private static String[] applicationArgs(Map<String, String> options, OpenWeatherStubServer stub) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type=WARN",
+                "--weather.prewarm.cron=-",
+                // The stub geocodes every pin code to the same point, nearby reuse would hide the upstream
+                "--weather.nearby.reuse-radius-km=0",
+                "--weather.open-weather.weather-url=" + stub.weatherUrl(),
+                "--weather.open-weather.geocoding-url=" + stub.geocodingUrl()));
+        options.forEach((name, value) -> {
+            if (!OPTIONS.contains(name)) {
+                args.add("--" + name + "=" + value);
+            }
+        });
+        return args.toArray(String[]::new);
+    }
+
+    private static void report(Histogram histogram, Map<Integer, LongAdder> statuses, Duration measurement,
+                               Duration cpu, OpenWeatherStubServer stub, PrintStream out) {
+        double throughput = histogram.getTotalCount() / (double) measurement.toSeconds();
+        double cpuSeconds = cpu.toNanos() / 1_000_000_000.0;
+        out.printf("%nrequests %d, throughput %.1f req/s%n", histogram.getTotalCount(), throughput);
+        out.printf("cpu %.1f s on %d cores (%.0f%% of them), %.1f req per cpu-second%n", cpuSeconds,
+                Runtime.getRuntime().availableProcessors(),
+                100 * cpuSeconds / (measurement.toSeconds() * Runtime.getRuntime().availableProcessors()),
+                histogram.getTotalCount() / cpuSeconds);
+        out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p999 %.2f  max %.2f%n",
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        out.printf("status codes: %s%n", statuses);
+        out.printf("upstream calls: %d weather, %d geocoding%n", stub.weatherRequests(), stub.geocodingRequests());
+    }
+
+    // CPU time of every thread in this JVM: the application, the stub and the clients
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    // 250ms, 30s, 2m
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unknown duration " + value);
+        };
+    }
+}
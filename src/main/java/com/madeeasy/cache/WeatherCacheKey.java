@@ -0,0 +1,15 @@
+package com.madeeasy.cache;
+
+import com.madeeasy.entity.WeatherInfo;
+
+import java.time.LocalDate;
+
+/**
+ * Identifies one weather record: a pin code on a given date.
+ */
+public record WeatherCacheKey(String pinCode, LocalDate date) {
+
+    public static WeatherCacheKey of(WeatherInfo weatherInfo) {
+        return new WeatherCacheKey(weatherInfo.getPinCode(), weatherInfo.getDate());
+    }
+}
@@ -0,0 +1,37 @@
+package com.madeeasy.cache;
+
+import com.madeeasy.config.WeatherProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Decides when stored weather is too old to keep serving without a refresh. Only today's row can go stale:
+ * past days no longer change, so once stored they are final.
+ */
+@Component
+public class WeatherFreshness {
+
+    private final Clock clock;
+    private final Duration maxAge;
+
+    public WeatherFreshness(Clock clock, WeatherProperties weatherProperties) {
+        this.clock = clock;
+        this.maxAge = weatherProperties.getFreshness().getMaxAge();
+    }
+
+    public boolean isStale(LocalDate date, Instant fetchedAt) {
+        if (!date.equals(LocalDate.now(clock))) {
+            return false;
+        }
+        // Rows written before fetchedAt existed have no timestamp, refresh them too
+        return fetchedAt == null || fetchedAt.plus(maxAge).isBefore(clock.instant());
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+}
@@ -0,0 +1,61 @@
+package com.madeeasy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * On-heap, size bounded L1 cache sitting in front of the weather_info table.
+ * Entries expire after the configured TTL and the least recently used ones are evicted
+ * once the size limit is reached. Hit/miss/eviction counters are published to the meter registry.
+ */
+@Component
+public class WeatherInfoCache {
+
+    private final Cache<WeatherCacheKey, WeatherInfo> cache;
+
+    public WeatherInfoCache(WeatherProperties properties, MeterRegistry meterRegistry) {
+        WeatherProperties.Cache settings = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weatherInfo");
+    }
+
+    public Optional<WeatherInfo> get(WeatherCacheKey key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void put(WeatherInfo weatherInfo) {
+        cache.put(WeatherCacheKey.of(weatherInfo), weatherInfo);
+    }
+
+    public void invalidate(WeatherCacheKey key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // A freshly saved row supersedes whatever we were holding for the same (pinCode, date)
+    @EventListener
+    public void onWeatherInfoSaved(WeatherInfoSavedEvent event) {
+        put(event.weatherInfo());
+    }
+}
@@ -0,0 +1,99 @@
+package com.madeeasy.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Already serialized bodies of {@code GET /api/weather}, keyed by (pinCode, date) and {@link ResponseFormat},
+ * together with a strong ETag computed from the bytes. A hit is written to the client as is, with no mapping,
+ * no Jackson and no database work. Each format is rendered on first request for it, so JSON-only traffic never
+ * pays for CBOR.
+ */
+@Component
+public class WeatherResponseCache {
+
+    public record CachedResponse(byte[] body, String etag, Instant fetchedAt) {
+    }
+
+    private record Key(WeatherCacheKey key, ResponseFormat format) {
+    }
+
+    private final Cache<Key, CachedResponse> cache;
+    private final Map<ResponseFormat, ObjectWriter> writers = new EnumMap<>(ResponseFormat.class);
+
+    public WeatherResponseCache(WeatherProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        WeatherProperties.Cache settings = properties.getCache();
+        writers.put(ResponseFormat.JSON, objectMapper.writerFor(WeatherInfoResponse.class));
+        writers.put(ResponseFormat.CBOR, ResponseFormat.cborMapper(objectMapper).writerFor(WeatherInfoResponse.class));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weatherResponse");
+    }
+
+    public Optional<CachedResponse> get(WeatherCacheKey key, ResponseFormat format) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(key, format)));
+    }
+
+    public CachedResponse put(WeatherInfo weatherInfo, ResponseFormat format) {
+        CachedResponse response = render(weatherInfo, format);
+        cache.put(new Key(WeatherCacheKey.of(weatherInfo), format), response);
+        return response;
+    }
+
+    // Every format of the day goes, they were all rendered from the same row
+    public void invalidate(WeatherCacheKey key) {
+        for (ResponseFormat format : ResponseFormat.values()) {
+            cache.invalidate(new Key(key, format));
+        }
+    }
+
+    // The stored body no longer matches the row, drop it and let the next request render it again
+    @EventListener
+    public void onWeatherInfoSaved(WeatherInfoSavedEvent event) {
+        invalidate(WeatherCacheKey.of(event.weatherInfo()));
+    }
+
+    // Bytes and ETag without keeping them, for a body that must not be served again
+    public CachedResponse render(WeatherInfo weatherInfo, ResponseFormat format) {
+        try {
+            byte[] body = writers.get(format).writeValueAsBytes(WeatherInfoResponse.from(weatherInfo));
+            return new CachedResponse(body, etag(body), weatherInfo.getFetchedAt());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize weather response", e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            // 128 bits of the digest is plenty to tell two bodies apart
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
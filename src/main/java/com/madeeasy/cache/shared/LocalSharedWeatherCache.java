@@ -0,0 +1,187 @@
+package com.madeeasy.cache.shared;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.WeatherInfoResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@code weather.shared-cache.type: local}, the reference implementation. Every application context in this JVM
+ * that names the same {@code cluster} joins one in-memory hub: its entries, its locks and its invalidations. Good
+ * for several instances in one process and for tests; replicas in separate processes need a distributed
+ * implementation of {@link SharedWeatherCache}.
+ */
+@Slf4j
+public class LocalSharedWeatherCache implements SharedWeatherCache, AutoCloseable {
+
+    private static final Map<String, Hub> HUBS = new ConcurrentHashMap<>();
+
+    private static final class Hub {
+        private final Cache<WeatherCacheKey, WeatherInfoResponse> weather;
+        private final Cache<String, WeatherInfoResponse.Location> locations;
+        // A lock is a future its holder completes on release; waiters block on it, nothing is kept afterwards
+        private final Map<String, CompletableFuture<Void>> locks = new ConcurrentHashMap<>();
+        private final Set<LocalSharedWeatherCache> members = new CopyOnWriteArraySet<>();
+
+        private Hub(WeatherProperties.SharedCache settings) {
+            this.weather = Caffeine.newBuilder()
+                    .maximumSize(settings.getMaxSize())
+                    .expireAfterWrite(settings.getTtl())
+                    .build();
+            this.locations = Caffeine.newBuilder()
+                    .maximumSize(settings.getMaxSize())
+                    .build();
+        }
+    }
+
+    private final String cluster;
+    private final Duration lockTimeout;
+    private final Hub hub;
+    private final List<Consumer<WeatherCacheKey>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Joins the hub named by {@code weather.shared-cache.cluster}; the first member sizes it.
+     */
+    public LocalSharedWeatherCache(WeatherProperties.SharedCache settings) {
+        this.cluster = settings.getCluster();
+        this.lockTimeout = settings.getLockTimeout();
+        this.hub = HUBS.compute(cluster, (name, existing) -> {
+            Hub joined = existing != null ? existing : new Hub(settings);
+            joined.members.add(this);
+            return joined;
+        });
+        log.info("Joined shared weather cache '{}' with {} members", cluster, hub.members.size());
+    }
+
+    @Override
+    public Optional<WeatherInfoResponse> get(WeatherCacheKey key) {
+        return Optional.ofNullable(hub.weather.getIfPresent(key));
+    }
+
+    @Override
+    public void put(WeatherInfoResponse weather) {
+        hub.weather.put(new WeatherCacheKey(weather.pinCode(), weather.date()), weather);
+    }
+
+    @Override
+    public Optional<WeatherInfoResponse.Location> getLocation(String pinCode) {
+        return Optional.ofNullable(hub.locations.getIfPresent(pinCode));
+    }
+
+    @Override
+    public void putLocation(WeatherInfoResponse.Location location) {
+        hub.locations.put(location.pinCode(), location);
+    }
+
+    @Override
+    public <T> T withLock(String name, Supplier<T> action) {
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        CompletableFuture<Void> lock = new CompletableFuture<>();
+        CompletableFuture<Void> held;
+        while ((held = hub.locks.putIfAbsent(name, lock)) != null) {
+            try {
+                held.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // The holder is slow or gone; fetching twice beats failing the request
+                log.warn("Gave up waiting {} for shared lock {}, running without it", lockTimeout, name);
+                return action.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shared lock " + name, e);
+            } catch (ExecutionException e) {
+                // Locks are only ever completed normally
+            }
+        }
+        try {
+            return action.get();
+        } finally {
+            release(name, lock);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> withLockAsync(String name, Supplier<? extends CompletionStage<T>> action) {
+        return acquire(name, System.nanoTime() + lockTimeout.toNanos()).thenCompose(lock -> {
+            CompletionStage<T> result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                release(name, lock);
+                return CompletableFuture.failedFuture(e);
+            }
+            return result.toCompletableFuture().whenComplete((value, failure) -> release(name, lock));
+        });
+    }
+
+    // Completes with the lock once it is ours, or with null when the wait timed out and the caller runs without it
+    private CompletableFuture<CompletableFuture<Void>> acquire(String name, long deadline) {
+        CompletableFuture<Void> lock = new CompletableFuture<>();
+        CompletableFuture<Void> held = hub.locks.putIfAbsent(name, lock);
+        if (held == null) {
+            return CompletableFuture.completedFuture(lock);
+        }
+        // The timeout goes on a copy, the holder's future must only ever be completed by its release
+        return held.copy()
+                .orTimeout(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .handle((released, failure) -> failure == null)
+                .thenCompose(released -> {
+                    if (released) {
+                        return acquire(name, deadline);
+                    }
+                    log.warn("Gave up waiting {} for shared lock {}, running without it", lockTimeout, name);
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    private void release(String name, CompletableFuture<Void> lock) {
+        if (lock != null) {
+            hub.locks.remove(name, lock);
+            lock.complete(null);
+        }
+    }
+
+    @Override
+    public void invalidateOthers(WeatherCacheKey key) {
+        for (LocalSharedWeatherCache member : hub.members) {
+            if (member != this) {
+                member.listeners.forEach(listener -> listener.accept(key));
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidation(Consumer<WeatherCacheKey> listener) {
+        listeners.add(listener);
+    }
+
+    public int members() {
+        return hub.members.size();
+    }
+
+    // The last member to leave takes the hub with it
+    @Override
+    public void close() {
+        HUBS.computeIfPresent(cluster, (name, existing) -> {
+            existing.members.remove(this);
+            return existing.members.isEmpty() ? null : existing;
+        });
+    }
+}
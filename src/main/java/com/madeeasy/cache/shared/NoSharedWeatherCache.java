@@ -0,0 +1,56 @@
+package com.madeeasy.cache.shared;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.dto.WeatherInfoResponse;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@code weather.shared-cache.type: none}. Every instance stands alone, as without a shared tier.
+ */
+public class NoSharedWeatherCache implements SharedWeatherCache {
+
+    @Override
+    public Optional<WeatherInfoResponse> get(WeatherCacheKey key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(WeatherInfoResponse weather) {
+    }
+
+    @Override
+    public Optional<WeatherInfoResponse.Location> getLocation(String pinCode) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void putLocation(WeatherInfoResponse.Location location) {
+    }
+
+    @Override
+    public <T> T withLock(String name, Supplier<T> action) {
+        return action.get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> withLockAsync(String name, Supplier<? extends CompletionStage<T>> action) {
+        try {
+            return action.get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void invalidateOthers(WeatherCacheKey key) {
+    }
+
+    @Override
+    public void onInvalidation(Consumer<WeatherCacheKey> listener) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.madeeasy.cache.shared;
+
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.WeatherResponseCache;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops this instance's in-memory copies of a day another instance has refreshed. The next read finds the older
+ * row in the database and swaps in the shared copy.
+ * <p>
+ * It subscribes in its constructor, so it stays eager under the fast-start profile's lazy initialization.
+ */
+@Lazy(false)
+@Component
+public class SharedCacheInvalidationListener {
+
+    public SharedCacheInvalidationListener(SharedWeatherCache sharedWeatherCache, WeatherInfoCache weatherInfoCache,
+                                           WeatherResponseCache weatherResponseCache) {
+        sharedWeatherCache.onInvalidation(key -> {
+            weatherInfoCache.invalidate(key);
+            weatherResponseCache.invalidate(key);
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.madeeasy.cache.shared;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.dto.WeatherInfoResponse;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Cache tier shared by every instance of the service, consulted after the instance's own database and before
+ * OpenWeather. Entries are plain {@link WeatherInfoResponse} values so any implementation can serialize them;
+ * an instance stores what it takes from here in its own database.
+ * <p>
+ * {@code weather.shared-cache.type} picks the implementation. A distributed one (Redis, Hazelcast, ...) maps
+ * {@link #withLock} to a lease and {@link #invalidateOthers} to a broadcast.
+ */
+public interface SharedWeatherCache {
+
+    Optional<WeatherInfoResponse> get(WeatherCacheKey key);
+
+    void put(WeatherInfoResponse weather);
+
+    Optional<WeatherInfoResponse.Location> getLocation(String pinCode);
+
+    void putLocation(WeatherInfoResponse.Location location);
+
+    /**
+     * Runs {@code action} holding the cluster-wide lock {@code name}, so only one instance at a time fetches a given
+     * key; the others wait and then find its result with {@link #get}. An instance that waits longer than
+     * {@code lock-timeout} runs the action anyway.
+     */
+    <T> T withLock(String name, Supplier<T> action);
+
+    /**
+     * {@link #withLock} for a non-blocking {@code action}: no thread waits for the lock, the action starts once it
+     * is held and the lock is released when the action's stage completes. Shares its locks with {@link #withLock}.
+     */
+    <T> CompletableFuture<T> withLockAsync(String name, Supplier<? extends CompletionStage<T>> action);
+
+    /**
+     * Tells every other instance to drop what it holds in memory for the key.
+     */
+    void invalidateOthers(WeatherCacheKey key);
+
+    void onInvalidation(Consumer<WeatherCacheKey> listener);
+}
@@ -0,0 +1,21 @@
+package com.madeeasy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.dto.ResponseFormat;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Replaces Spring's default CBOR converter with one built on {@link ResponseFormat#cborMapper}, so bodies written
+ * through the converter (batch, near) use the same compact layout as the cached single lookups. It keeps the
+ * default's place after the JSON converter, so a request that accepts anything still gets JSON.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(ResponseFormat.cborMapper(objectMapper));
+    }
+}
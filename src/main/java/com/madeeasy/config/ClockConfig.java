@@ -0,0 +1,19 @@
+package com.madeeasy.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/**
+ * Clock in {@code weather.zone}, so "today" means the same date everywhere in the app and tests can pin it.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock(WeatherProperties weatherProperties) {
+        return Clock.system(ZoneId.of(weatherProperties.getZone()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.madeeasy.config;
+
+import com.madeeasy.geo.PinCodeGeoIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Loads the pin code geo index at startup when {@code weather.geo-index.location} is set.
+ * Without it the index is empty and every new pin code goes to the geocoding API as before.
+ */
+@Slf4j
+@Configuration
+public class GeoIndexConfig {
+
+    @Bean
+    public PinCodeGeoIndex pinCodeGeoIndex(WeatherProperties weatherProperties, ResourceLoader resourceLoader) {
+        String location = weatherProperties.getGeoIndex().getLocation();
+        if (!StringUtils.hasText(location)) {
+            log.info("No geo index configured, new pin codes are geocoded through OpenWeather");
+            return PinCodeGeoIndex.empty();
+        }
+
+        Resource resource = resourceLoader.getResource(location);
+        long start = System.nanoTime();
+        try (InputStream in = resource.getInputStream()) {
+            PinCodeGeoIndex index = PinCodeGeoIndex.load(in);
+            log.info("Loaded geo index from {}: {} pin codes in {} ms, ~{} KB on heap", location, index.size(),
+                    (System.nanoTime() - start) / 1_000_000, index.estimatedBytes() / 1024);
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read geo index " + location, e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.madeeasy.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client used for the OpenWeather geocoding and weather calls.
+ * Connections are pooled and kept alive between requests so a cache miss does not pay
+ * TCP/TLS setup every time, and every stage has a timeout so a slow upstream cannot pin threads.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager openWeatherConnectionManager(WeatherProperties weatherProperties) {
+        WeatherProperties.HttpClient settings = weatherProperties.getHttpClient();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.getMaxConnections())
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(settings.getConnectionTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient openWeatherHttpClient(PoolingHttpClientConnectionManager openWeatherConnectionManager,
+                                                     WeatherProperties weatherProperties) {
+        WeatherProperties.HttpClient settings = weatherProperties.getHttpClient();
+        TimeValue defaultKeepAlive = TimeValue.of(settings.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(openWeatherConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(settings.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(settings.getReadTimeout()))
+                        // Used when the server sends no Keep-Alive header of its own
+                        .setConnectionKeepAlive(defaultKeepAlive)
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(defaultKeepAlive)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient openWeatherHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(openWeatherHttpClient))
+                .build();
+    }
+
+    // Publishes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max)
+    @Bean
+    public MeterBinder openWeatherConnectionPoolMetrics(PoolingHttpClientConnectionManager openWeatherConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(openWeatherConnectionManager, "openWeather");
+    }
+}
@@ -0,0 +1,12 @@
+package com.madeeasy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on {@code @Scheduled} jobs such as the hot pin code prewarmer.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
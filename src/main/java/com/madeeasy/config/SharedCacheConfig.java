@@ -0,0 +1,24 @@
+package com.madeeasy.config;
+
+import com.madeeasy.cache.shared.LocalSharedWeatherCache;
+import com.madeeasy.cache.shared.NoSharedWeatherCache;
+import com.madeeasy.cache.shared.SharedWeatherCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the {@link SharedWeatherCache} named by {@code weather.shared-cache.type}.
+ */
+@Configuration
+public class SharedCacheConfig {
+
+    @Bean
+    public SharedWeatherCache sharedWeatherCache(WeatherProperties weatherProperties) {
+        WeatherProperties.SharedCache settings = weatherProperties.getSharedCache();
+        return switch (settings.getType()) {
+            case "none" -> new NoSharedWeatherCache();
+            case "local" -> new LocalSharedWeatherCache(settings);
+            default -> throw new IllegalStateException("Unknown weather.shared-cache.type: " + settings.getType());
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.madeeasy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Application level settings bound from the {@code weather.*} namespace of application.yaml.
+ */
+@Data
+@ConfigurationProperties(prefix = "weather")
+public class WeatherProperties {
+
+    private String zone = "Asia/Kolkata";            // Zone that decides which date is "today"
+    private Cache cache = new Cache();
+    private Batch batch = new Batch();
+    private HttpClient httpClient = new HttpClient();
+    private GeoIndex geoIndex = new GeoIndex();
+    private Prewarm prewarm = new Prewarm();
+    private Freshness freshness = new Freshness();
+    private Resilience resilience = new Resilience();
+    private OpenWeather openWeather = new OpenWeather();
+    private Logging logging = new Logging();
+    private Retention retention = new Retention();
+    private Range range = new Range();
+    private Nearby nearby = new Nearby();
+    private WriteBehind writeBehind = new WriteBehind();
+    private Execution execution = new Execution();
+    private SharedCache sharedCache = new SharedCache();
+    private StartupWarmUp startupWarmUp = new StartupWarmUp();
+
+    @Data
+    public static class Cache {
+        private long maxSize = 10_000;               // Max number of (pinCode, date) entries kept on heap
+        private Duration ttl = Duration.ofMinutes(30); // Time an entry lives after it was written
+    }
+
+    @Data
+    public static class Batch {
+        private int maxSize = 500;                   // Max pin codes accepted in a single batch request
+        private int maxParallelism = 16;             // Max concurrent OpenWeather fetches per batch request
+    }
+
+    @Data
+    public static class HttpClient {
+        private int maxConnections = 200;            // Pooled connections across all OpenWeather hosts
+        private int maxConnectionsPerRoute = 100;    // Pooled connections per host (geocoding and weather share one)
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2); // Wait for a free pooled connection
+        private Duration keepAlive = Duration.ofSeconds(30);                // Idle time before a connection is closed
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);      // Max lifetime of a pooled connection
+    }
+
+    @Data
+    public static class GeoIndex {
+        private String location;                     // pinCode,latitude,longitude,cityName CSV; unset disables the index
+    }
+
+    @Data
+    public static class Prewarm {
+        private String cron = "0 1 0 * * *";         // When to prewarm, in weather.zone; "-" turns the job off
+        private int topK = 100;                      // Most requested pin codes loaded per run
+        private int maxConcurrency = 4;              // Prewarm loads in flight at once
+        private int requestsPerSecond = 10;          // Max prewarm loads started per second
+        private int maxTrackedPinCodes = 50_000;     // Distinct pin codes whose demand is counted
+    }
+
+    @Data
+    public static class Freshness {
+        private Duration maxAge = Duration.ofMinutes(30); // Age after which today's row is refreshed in the background
+    }
+
+    @Data
+    public static class Resilience {
+        private int requestsPerSecond = 50;          // OpenWeather calls allowed per second, keep it under the API quota
+        private Duration rateLimitTimeout = Duration.ofMillis(500); // Wait for a rate limit permit before giving up
+        private int maxConcurrentCalls = 32;         // OpenWeather calls in flight at once (bulkhead)
+        private Duration bulkheadTimeout = Duration.ZERO;           // Wait for a free bulkhead slot before giving up
+        private float failureRateThreshold = 50;     // % of failed calls in the window that opens the circuit
+        private Duration slowCallThreshold = Duration.ofSeconds(2); // Calls slower than this count as slow
+        private float slowCallRateThreshold = 80;    // % of slow calls in the window that opens the circuit
+        private int slidingWindowSize = 50;          // Last N calls the rates are computed over
+        private int minimumNumberOfCalls = 20;       // Calls needed before the circuit can open at all
+        private Duration openStateDuration = Duration.ofSeconds(30); // Time the circuit stays open before probing
+        private int halfOpenCalls = 5;               // Probe calls allowed while half open
+    }
+
+    @Data
+    public static class OpenWeather {
+        private String weatherUrl = "https://api.openweathermap.org/data/2.5/weather"; // Current weather endpoint
+        private String geocodingUrl = "https://api.openweathermap.org/geo/1.0/zip";    // Zip code geocoding endpoint
+        private String apiKey = "YOUR_API_KEY";      // Replace with your actual OpenWeather API key
+    }
+
+    @Data
+    public static class Logging {
+        private double payloadSampleRate = 0.01;     // Share of OpenWeather bodies logged when the payload logger is at DEBUG
+    }
+
+    @Data
+    public static class Retention {
+        private String cron = "0 30 3 * * *";        // When to purge, in weather.zone; "-" turns the job off
+        private int keepDays = 90;                   // Days of weather_info kept, counting back from today
+        private int batchSize = 500;                 // Rows deleted per transaction
+        private Duration pauseBetweenBatches = Duration.ofMillis(50); // Gap that lets foreground writes through
+        private boolean summarize = false;           // Keep one weather_daily_summary row per purged (pinCode, date)
+    }
+
+    @Data
+    public static class Range {
+        private int maxDays = 366;                   // Longest from..to span one range request may ask for
+        private int chunkDays = 64;                  // Days read per query and transaction, so at most this many rows
+    }
+
+    @Data
+    public static class Nearby {
+        private double reuseRadiusKm = 0;            // A miss reuses same-day weather stored for a pin code this close; 0 is off
+        private int maxCandidates = 8;               // Nearest pin codes checked for reusable weather
+        private double searchRadiusKm = 25;          // Furthest a known pin code may be for a "weather near lat/lon" query
+    }
+
+    @Data
+    public static class WriteBehind {
+        private boolean enabled = false;             // Misses return before their row is stored; a background writer stores it
+        private int queueCapacity = 10_000;          // Rows waiting to be written; when full, misses write synchronously
+        private int batchSize = 50;                  // Rows per transaction, matches hibernate.jdbc.batch_size
+        private int maxAttempts = 3;                 // Tries per batch before its rows are dropped from memory again
+        private Duration retryBackoff = Duration.ofMillis(200); // Wait before the next try, grows with each attempt
+        private Duration shutdownTimeout = Duration.ofSeconds(10); // Time given to empty the queue on shutdown
+    }
+
+    @Data
+    public static class Execution {
+        private String mode = "blocking";            // "blocking": one (virtual) thread per lookup; "async": CompletableFuture pipeline
+        private int databaseThreads = 10;            // Async mode: threads running repository calls, keep at the JDBC pool size
+    }
+
+    @Data
+    public static class SharedCache {
+        private String type = "none";                // "none", or "local": contexts in this JVM with the same cluster share one tier
+        private String cluster = "weather";          // Name of the shared tier the instance joins
+        private long maxSize = 100_000;              // (pinCode, date) entries the local implementation holds
+        private Duration ttl = Duration.ofHours(6);  // Time a shared entry lives after it was written
+        private Duration lockTimeout = Duration.ofSeconds(10); // Wait for another instance's fetch of the same key, then fetch anyway
+    }
+
+    @Data
+    public static class StartupWarmUp {
+        private boolean enabled = false;             // Exercise JSON mapping and repository queries before reporting ready
+        private int iterations = 300;                // Passes over that code, enough for the JIT to compile the hot methods
+    }
+}
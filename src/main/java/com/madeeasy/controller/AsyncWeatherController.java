@@ -0,0 +1,60 @@
+package com.madeeasy.controller;
+
+import com.madeeasy.dto.BatchWeatherRequest;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.service.impl.AsyncWeatherServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lookups for {@code weather.execution.mode: async}, on the same paths as {@link WeatherController}. A miss hands
+ * back the service's future, so the request thread is released while the lookup runs and the response is written
+ * once it completes. Hits on the stored bytes are answered right away.
+ */
+@RestController
+@RequestMapping(path = "/api/weather")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "weather.execution", name = "mode", havingValue = "async")
+public class AsyncWeatherController {
+
+    private final AsyncWeatherServiceImpl weatherService;
+    private final WeatherResponses weatherResponses;
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<byte[]>> getWeather(@RequestParam String pinCode,
+                                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate forDate,
+                                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        ResponseFormat format = ResponseFormat.forBody(accept);
+        return weatherResponses.stored(pinCode, forDate, ifNoneMatch, format)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> weatherService.getWeatherInfoAsync(pinCode, forDate)
+                        .thenApply(weatherInfo -> weatherResponses.loaded(weatherInfo, forDate, ifNoneMatch, format)));
+    }
+
+    @PostMapping(path = "/batch")
+    public CompletableFuture<ResponseEntity<BatchWeatherResponse>> getWeatherBatch(@RequestBody BatchWeatherRequest request) {
+        weatherResponses.checkBatch(request);
+        return weatherService.getWeatherInfoBatchAsync(request.pinCodes(), request.forDate())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(path = "/near")
+    public CompletableFuture<ResponseEntity<WeatherInfoResponse>> getWeatherNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate forDate) {
+        WeatherResponses.checkCoordinates(lat, lon);
+        return weatherService.getWeatherNearAsync(lat, lon, forDate)
+                .thenApply(nearest -> weatherResponses.near(nearest, forDate));
+    }
+}
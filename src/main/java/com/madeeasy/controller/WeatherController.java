@@ -1,28 +1,67 @@
 package com.madeeasy.controller;
 
+import com.madeeasy.dto.BatchWeatherRequest;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
 import com.madeeasy.entity.WeatherInfo;
 import com.madeeasy.service.WeatherService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 
+/**
+ * Lookups for {@code weather.execution.mode: blocking}: the request's thread waits for the service. In async mode
+ * {@link AsyncWeatherController} serves the same paths instead.
+ */
 @RestController
 @RequestMapping(path = "/api/weather")
 @RequiredArgsConstructor
+@ConditionalOnExpression("'${weather.execution.mode:blocking}' != 'async'")
 public class WeatherController {
+    /**
+     * Set on a response that carries the last day stored for the pin code instead of the requested one, because
+     * OpenWeather is unavailable. Such a response has no ETag and is not stored anywhere.
+     */
+    public static final String FALLBACK_HEADER = "X-Weather-Fallback";
+
     private final WeatherService weatherService;
+    private final WeatherResponses weatherResponses;
 
     @GetMapping
-    public ResponseEntity<?> getWeather(@RequestParam String pinCode,
-                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate forDate) {
-        WeatherInfo weatherInfo = weatherService.getWeatherInfo(pinCode, forDate);
-        return ResponseEntity.ok(weatherInfo);
+    public ResponseEntity<byte[]> getWeather(@RequestParam String pinCode,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate forDate,
+                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        ResponseFormat format = ResponseFormat.forBody(accept);
+        return weatherResponses.stored(pinCode, forDate, ifNoneMatch, format).orElseGet(() -> {
+            WeatherInfo weatherInfo = weatherService.getWeatherInfo(pinCode, forDate);
+            return weatherResponses.loaded(weatherInfo, forDate, ifNoneMatch, format);
+        });
+    }
+
+    @PostMapping(path = "/batch")
+    public ResponseEntity<BatchWeatherResponse> getWeatherBatch(@RequestBody BatchWeatherRequest request) {
+        weatherResponses.checkBatch(request);
+        BatchWeatherResponse response = weatherService.getWeatherInfoBatch(request.pinCodes(), request.forDate());
+        return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Weather at the known pin code closest to {@code lat}/{@code lon}; 404 when none is within
+     * {@code weather.nearby.search-radius-km}.
+     */
+    @GetMapping(path = "/near")
+    public ResponseEntity<WeatherInfoResponse> getWeatherNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate forDate) {
+        WeatherResponses.checkCoordinates(lat, lon);
+        return weatherResponses.near(weatherService.getWeatherNear(lat, lon, forDate), forDate);
+    }
+}
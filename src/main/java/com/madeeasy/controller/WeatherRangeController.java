@@ -0,0 +1,83 @@
+package com.madeeasy.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.service.WeatherService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Stored days over a date range. The body is written by the MVC task executor rather than the request thread, so it
+ * is served the same way in either execution mode.
+ */
+@RestController
+@RequestMapping(path = "/api/weather")
+@RequiredArgsConstructor
+public class WeatherRangeController {
+
+    private final WeatherService weatherService;
+    private final WeatherProperties weatherProperties;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    /**
+     * Stored weather for one pin code over {@code from}..{@code to} (inclusive) as NDJSON, one day per line, oldest
+     * first, or as a CBOR sequence when asked for. Days are read in short chunks and written out between them, so
+     * the response is never held in memory as a whole and no database connection waits on the client.
+     */
+    @GetMapping(path = "/range", produces = {"application/x-ndjson", "application/cbor-seq"})
+    public ResponseEntity<StreamingResponseBody> getWeatherRange(
+            @RequestParam String pinCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        int maxDays = weatherProperties.getRange().getMaxDays();
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxDays + " days per request");
+        }
+
+        ResponseFormat format = ResponseFormat.forSequence(accept);
+        // A CBOR sequence is just the items back to back, NDJSON ends every item with a newline
+        boolean lines = format == ResponseFormat.JSON;
+        ObjectMapper mapper = lines ? objectMapper : cborHttpMessageConverter.getObjectMapper();
+        StreamingResponseBody body = out -> {
+            // No flush per line: the servlet buffer decides when a chunk goes out
+            ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator days = mapper.createGenerator(out)) {
+                if (lines) {
+                    days.setRootValueSeparator(null);
+                }
+                weatherService.forEachInRange(pinCode, from, to, day -> {
+                    try {
+                        writer.writeValue(days, day);
+                        if (lines) {
+                            days.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(format.sequenceType()).body(body);
+    }
+}
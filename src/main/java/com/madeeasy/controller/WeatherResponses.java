@@ -0,0 +1,122 @@
+package com.madeeasy.controller;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherFreshness;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.BatchWeatherRequest;
+import com.madeeasy.dto.ResponseFormat;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * What the blocking and the async controller answer, once they have the weather. Only how they wait for it differs.
+ */
+@Component
+@RequiredArgsConstructor
+class WeatherResponses {
+    private static final String LAST_KNOWN = "last-known";
+
+    private final WeatherResponseCache weatherResponseCache;
+    private final PinCodeDemandTracker demandTracker;
+    private final WeatherFreshness weatherFreshness;
+    private final WeatherProperties weatherProperties;
+
+    /**
+     * The stored bytes for (pinCode, forDate), when we have them; only a miss goes to the service and Jackson. A
+     * stale body also goes through the service, which serves it once more and starts the refresh.
+     */
+    Optional<ResponseEntity<byte[]>> stored(String pinCode, LocalDate forDate, String ifNoneMatch, ResponseFormat format) {
+        Optional<WeatherResponseCache.CachedResponse> stored = weatherResponseCache.get(new WeatherCacheKey(pinCode, forDate), format)
+                .filter(cached -> !weatherFreshness.isStale(forDate, cached.fetchedAt()));
+        // The service never sees this request, count its demand here
+        stored.ifPresent(cached -> demandTracker.recordWarm(pinCode));
+        return stored.map(cached -> respond(cached, ifNoneMatch, format));
+    }
+
+    ResponseEntity<byte[]> loaded(WeatherInfo weatherInfo, LocalDate forDate, String ifNoneMatch, ResponseFormat format) {
+        if (isFallback(weatherInfo, forDate)) {
+            return ResponseEntity.ok()
+                    .header(WeatherController.FALLBACK_HEADER, LAST_KNOWN)
+                    .cacheControl(CacheControl.noStore())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(format.bodyType())
+                    .body(weatherResponseCache.render(weatherInfo, format).body());
+        }
+        return respond(weatherResponseCache.put(weatherInfo, format), ifNoneMatch, format);
+    }
+
+    ResponseEntity<WeatherInfoResponse> near(Optional<WeatherInfo> nearest, LocalDate forDate) {
+        WeatherInfo weatherInfo = nearest.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                "No known pin code within " + weatherProperties.getNearby().getSearchRadiusKm() + " km"));
+        if (isFallback(weatherInfo, forDate)) {
+            return ResponseEntity.ok()
+                    .header(WeatherController.FALLBACK_HEADER, LAST_KNOWN)
+                    .cacheControl(CacheControl.noStore())
+                    .body(WeatherInfoResponse.from(weatherInfo));
+        }
+        return ResponseEntity.ok(WeatherInfoResponse.from(weatherInfo));
+    }
+
+    void checkBatch(BatchWeatherRequest request) {
+        if (request.pinCodes() == null || request.pinCodes().isEmpty() || request.forDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "pinCodes and forDate are required");
+        }
+        int maxSize = weatherProperties.getBatch().getMaxSize();
+        if (request.pinCodes().size() > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxSize + " pin codes per request");
+        }
+    }
+
+    static void checkCoordinates(double lat, double lon) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat must be within -90..90 and lon within -180..180");
+        }
+    }
+
+    private static ResponseEntity<byte[]> respond(WeatherResponseCache.CachedResponse response, String ifNoneMatch,
+                                                  ResponseFormat format) {
+        // Each format has its own bytes and ETag; shared caches must key on Accept too
+        if (matches(ifNoneMatch, response.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.etag()).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.bodyType())
+                .body(response.body());
+    }
+
+    // Every other path answers with the day asked for; only the last known fallback hands back another one
+    private static boolean isFallback(WeatherInfo weatherInfo, LocalDate forDate) {
+        return !forDate.equals(weatherInfo.getDate());
+    }
+
+    // If-None-Match may list several tags or "*"; weak comparison applies, so a W/ prefix is ignored
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.madeeasy.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BatchWeatherRequest(List<String> pinCodes, LocalDate forDate) {
+}
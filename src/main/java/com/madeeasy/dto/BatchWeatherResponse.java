@@ -0,0 +1,13 @@
+package com.madeeasy.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Per pin code outcome of a batch lookup: pin codes that resolved end up in {@code results},
+ * the ones whose upstream fetch failed end up in {@code errors} with the failure message.
+ */
+public record BatchWeatherResponse(LocalDate forDate,
+                                   Map<String, WeatherInfoResponse> results,
+                                   Map<String, String> errors) {
+}
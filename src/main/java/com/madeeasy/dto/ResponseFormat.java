@@ -0,0 +1,134 @@
+package com.madeeasy.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodings the weather endpoints answer in, picked from the {@code Accept} header. JSON stays the default; CBOR
+ * is the compact one for high-volume internal consumers.
+ * <p>
+ * The CBOR form writes every weather object as an array in the fixed field order declared below instead of as a
+ * map, so no field name goes over the wire. A consumer decodes it with {@link #cborMapper}, or by position.
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON, MediaType.parseMediaType("application/x-ndjson")),
+    CBOR(MediaType.APPLICATION_CBOR, MediaType.parseMediaType("application/cbor-seq"));
+
+    private final MediaType bodyType;
+    private final MediaType sequenceType;
+
+    ResponseFormat(MediaType bodyType, MediaType sequenceType) {
+        this.bodyType = bodyType;
+        this.sequenceType = sequenceType;
+    }
+
+    /**
+     * Content type of a single response body.
+     */
+    public MediaType bodyType() {
+        return bodyType;
+    }
+
+    /**
+     * Content type of a stream of bodies, one per day of a range.
+     */
+    public MediaType sequenceType() {
+        return sequenceType;
+    }
+
+    public static ResponseFormat forBody(String accept) {
+        return negotiate(accept, ResponseFormat::bodyType);
+    }
+
+    public static ResponseFormat forSequence(String accept) {
+        return negotiate(accept, ResponseFormat::sequenceType);
+    }
+
+    // Highest quality wins, JSON on a tie; a missing or unreadable header, or one that accepts neither, gets JSON
+    private static ResponseFormat negotiate(String accept, Function<ResponseFormat, MediaType> type) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        ResponseFormat best = JSON;
+        double bestQuality = 0;
+        for (ResponseFormat format : values()) {
+            double quality = quality(type.apply(format), accepted);
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    // The quality of the most specific range that covers the type: "application/cbor;q=0" beats "*/*"
+    private static double quality(MediaType type, List<MediaType> accepted) {
+        int bestSpecificity = -1;
+        double quality = 0;
+        for (MediaType range : accepted) {
+            if (!range.includes(type)) {
+                continue;
+            }
+            int specificity = range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+            if (specificity > bestSpecificity) {
+                bestSpecificity = specificity;
+                quality = range.getQualityValue();
+            }
+        }
+        return quality;
+    }
+
+    /**
+     * CBOR counterpart of the application's JSON mapper: same modules and settings, weather objects written as
+     * fixed-order arrays, and doubles as floats whenever that loses nothing.
+     */
+    public static ObjectMapper cborMapper(ObjectMapper jsonMapper) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES)
+                .build();
+        return jsonMapper.copyWith(factory)
+                .addMixIn(WeatherInfoResponse.class, WeatherInfoLayout.class)
+                .addMixIn(WeatherInfoResponse.Location.class, LocationLayout.class)
+                .addMixIn(WeatherInfoResponse.Detail.class, DetailLayout.class)
+                .addMixIn(BatchWeatherResponse.class, BatchLayout.class);
+    }
+
+    // The positions are the wire contract: new fields go at the end, existing ones never move
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "pinCode", "date", "country", "timezoneOffset", "sunriseTime", "sunsetTime",
+            "fetchedAt", "location", "weatherDetails"})
+    private interface WeatherInfoLayout {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "pinCode", "latitude", "longitude", "cityName"})
+    private interface LocationLayout {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "main", "description", "icon", "temp", "feelsLike", "humidity", "pressure",
+            "cloudiness", "windSpeed", "visibility"})
+    private interface DetailLayout {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"forDate", "results", "errors"})
+    private interface BatchLayout {
+    }
+}
@@ -0,0 +1,115 @@
+package com.madeeasy.dto;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable view of a {@link WeatherInfo} as returned by the API. Mirrors the JSON the entity used to
+ * produce, but holds no Hibernate state so it can be serialized once and reused.
+ */
+public record WeatherInfoResponse(Long id,
+                                  String pinCode,
+                                  LocalDate date,
+                                  String country,
+                                  Integer timezoneOffset,
+                                  Integer sunriseTime,
+                                  Integer sunsetTime,
+                                  Instant fetchedAt,
+                                  Location location,
+                                  List<Detail> weatherDetails) {
+
+    public record Location(Long id, String pinCode, double latitude, double longitude, String cityName) {
+
+        public static Location from(PinCodeLocation location) {
+            return new Location(location.getId(), location.getPinCode(), location.getLatitude(),
+                    location.getLongitude(), location.getCityName());
+        }
+
+        /**
+         * Unsaved entity with the same coordinates; ids belong to the database that issued them.
+         */
+        public PinCodeLocation toEntity() {
+            return PinCodeLocation.builder()
+                    .pinCode(pinCode)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .cityName(cityName)
+                    .build();
+        }
+    }
+
+    public record Detail(Long id,
+                         String main,
+                         String description,
+                         String icon,
+                         Double temp,
+                         Double feelsLike,
+                         Integer humidity,
+                         Integer pressure,
+                         Integer cloudiness,
+                         Double windSpeed,
+                         Integer visibility) {
+    }
+
+    public static WeatherInfoResponse from(WeatherInfo weatherInfo) {
+        PinCodeLocation location = weatherInfo.getLocation();
+        List<WeatherDetail> details = weatherInfo.getWeatherDetails() != null ? weatherInfo.getWeatherDetails() : List.of();
+        return new WeatherInfoResponse(
+                weatherInfo.getId(),
+                weatherInfo.getPinCode(),
+                weatherInfo.getDate(),
+                weatherInfo.getCountry(),
+                weatherInfo.getTimezoneOffset(),
+                weatherInfo.getSunriseTime(),
+                weatherInfo.getSunsetTime(),
+                weatherInfo.getFetchedAt(),
+                location == null ? null : Location.from(location),
+                details.stream()
+                        .map(detail -> new Detail(detail.getId(), detail.getMain(), detail.getDescription(),
+                                detail.getIcon(), detail.getTemp(), detail.getFeelsLike(), detail.getHumidity(),
+                                detail.getPressure(), detail.getCloudiness(), detail.getWindSpeed(),
+                                detail.getVisibility()))
+                        .toList());
+    }
+
+    /**
+     * Unsaved entity carrying this weather, attached to {@code location}, for example to store a copy another
+     * instance fetched.
+     */
+    public WeatherInfo toWeatherInfo(PinCodeLocation location) {
+        WeatherInfo weatherInfo = WeatherInfo.builder()
+                .pinCode(pinCode)
+                .date(date)
+                .country(country)
+                .timezoneOffset(timezoneOffset)
+                .sunriseTime(sunriseTime)
+                .sunsetTime(sunsetTime)
+                .fetchedAt(fetchedAt)
+                .location(location)
+                .build();
+        List<WeatherDetail> details = new ArrayList<>();
+        for (Detail detail : weatherDetails) {
+            details.add(WeatherDetail.builder()
+                    .main(detail.main())
+                    .description(detail.description())
+                    .icon(detail.icon())
+                    .temp(detail.temp())
+                    .feelsLike(detail.feelsLike())
+                    .humidity(detail.humidity())
+                    .pressure(detail.pressure())
+                    .cloudiness(detail.cloudiness())
+                    .windSpeed(detail.windSpeed())
+                    .visibility(detail.visibility())
+                    .weatherInfo(weatherInfo)
+                    .build());
+        }
+        weatherInfo.setWeatherDetails(details);
+        return weatherInfo;
+    }
+}
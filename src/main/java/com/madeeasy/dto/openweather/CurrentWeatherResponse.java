@@ -0,0 +1,50 @@
+package com.madeeasy.dto.openweather;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The parts of the OpenWeather {@code /data/2.5/weather} response we persist.
+ * Jackson binds straight into these records and skips every other field of the payload.
+ * Numbers are bound into wrapper types, so {@code 25} and {@code 25.0} are both accepted.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CurrentWeatherResponse(Coord coord,
+                                     List<Weather> weather,
+                                     Main main,
+                                     Integer visibility,
+                                     Wind wind,
+                                     Clouds clouds,
+                                     Sys sys,
+                                     Integer timezone,
+                                     String name) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Coord(Double lat, Double lon) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Weather(String main, String description, String icon) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Main(Double temp,
+                       @JsonProperty("feels_like") Double feelsLike,
+                       Integer pressure,
+                       Integer humidity) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Wind(Double speed) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Clouds(Integer all) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Sys(String country, Integer sunrise, Integer sunset) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.madeeasy.dto.openweather;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Response of the OpenWeather {@code /geo/1.0/zip} endpoint.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GeocodingResponse(String zip, String name, Double lat, Double lon, String country) {
+}
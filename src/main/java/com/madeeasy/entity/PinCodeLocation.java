@@ -4,6 +4,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,12 +15,14 @@ import lombok.NoArgsConstructor;
 @Data
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_pin_code_location_pin_code", columnNames = "pin_code"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class PinCodeLocation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pin_code_location_seq")
+    @SequenceGenerator(name = "pin_code_location_seq", sequenceName = "pin_code_location_seq", allocationSize = 50)
     private Long id;
     private String pinCode;
     private double latitude;
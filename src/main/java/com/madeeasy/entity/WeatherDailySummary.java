@@ -0,0 +1,36 @@
+package com.madeeasy.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * What is kept of a day once its {@link WeatherInfo} and details have passed the retention period:
+ * one narrow row per (pinCode, date), written by the retention job.
+ */
+@Data
+@Builder
+@Entity
+@IdClass(WeatherDailySummaryId.class)
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeatherDailySummary {
+
+    @Id
+    private String pinCode;
+    @Id
+    private LocalDate date;
+
+    private String main;             // Primary weather condition of the day (e.g., "Clear")
+    private Double temp;             // Temperature (Celsius)
+    private Double feelsLike;        // Feels like temperature (Celsius)
+    private Integer humidity;        // Humidity in percentage
+    private Integer pressure;        // Atmospheric pressure (hPa)
+    private Double windSpeed;        // Wind speed (m/s)
+}
@@ -0,0 +1,19 @@
+package com.madeeasy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Composite key of {@link WeatherDailySummary}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeatherDailySummaryId implements Serializable {
+    private String pinCode;
+    private LocalDate date;
+}
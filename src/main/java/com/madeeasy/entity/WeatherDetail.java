@@ -8,14 +8,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
 public class WeatherDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_detail_seq")
+    @SequenceGenerator(name = "weather_detail_seq", sequenceName = "weather_detail_seq", allocationSize = 50)
     private Long id;
 
     // Add more fields as needed
@@ -8,18 +8,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 @Data
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_weather_info_pin_code_date", columnNames = {"pin_code", "date"}),
+        indexes = @Index(name = "idx_weather_info_date", columnList = "date"))  // retention scans by date
 @AllArgsConstructor
 @NoArgsConstructor
 public class WeatherInfo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_info_seq")
+    @SequenceGenerator(name = "weather_info_seq", sequenceName = "weather_info_seq", allocationSize = 50)
     private Long id;
 
     private String pinCode;              // Pin code
@@ -31,6 +35,8 @@ public class WeatherInfo {
     private Integer sunriseTime;         // Sunrise time (timestamp)
     private Integer sunsetTime;          // Sunset time (timestamp)
 
+    private Instant fetchedAt;           // When this data was fetched from OpenWeather
+
     @ManyToOne
     private PinCodeLocation location;    // Link to the PinCodeLocation entity
 
@@ -0,0 +1,10 @@
+package com.madeeasy.event;
+
+import com.madeeasy.entity.WeatherInfo;
+
+/**
+ * Published after a {@link WeatherInfo} has been written to the database so that
+ * in-memory copies of the same (pinCode, date) can be replaced.
+ */
+public record WeatherInfoSavedEvent(WeatherInfo weatherInfo) {
+}
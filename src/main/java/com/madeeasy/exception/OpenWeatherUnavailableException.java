@@ -0,0 +1,16 @@
+package com.madeeasy.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * OpenWeather could not be asked right now: the circuit is open, our own rate limit or bulkhead rejected the call,
+ * or the upstream timed out, failed or throttled us.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OpenWeatherUnavailableException extends RuntimeException {
+
+    public OpenWeatherUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,145 @@
+package com.madeeasy.geo;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grid over the coordinates of every pin code we hold a {@link PinCodeLocation} for. The globe is cut into cells
+ * of {@value #CELL_DEGREES} degrees; a radius query only visits the cells its bounding box touches and measures
+ * the great-circle distance to the points in them.
+ * <p>
+ * Filled from the database once the application is ready and then from every saved weather row, so locations
+ * stored by other instances after startup are only picked up on the next start.
+ */
+@Slf4j
+@Component
+public class NearbyLocationIndex {
+
+    static final double CELL_DEGREES = 0.05;          // ~5.5 km north-south
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+    private static final int FIRST_COLUMN = column(-180);
+
+    public record Nearby(String pinCode, double distanceKm) {
+    }
+
+    private record Point(String pinCode, double latitude, double longitude) {
+    }
+
+    private final PinCodeLocationRepository pinCodeLocationRepository;
+    private final Map<String, Point> byPinCode = new ConcurrentHashMap<>();
+    // Cell lists are replaced, never changed in place, so readers iterate them without locking
+    private final Map<Long, List<Point>> cells = new ConcurrentHashMap<>();
+
+    public NearbyLocationIndex(PinCodeLocationRepository pinCodeLocationRepository) {
+        this.pinCodeLocationRepository = pinCodeLocationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        pinCodeLocationRepository.findAll().forEach(this::add);
+        log.info("Nearby location index holds {} pin codes, built in {} ms", size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onWeatherInfoSaved(WeatherInfoSavedEvent event) {
+        if (event.weatherInfo().getLocation() != null) {
+            add(event.weatherInfo().getLocation());
+        }
+    }
+
+    public void add(PinCodeLocation location) {
+        Point point = new Point(location.getPinCode(), location.getLatitude(), location.getLongitude());
+        // A pin code's coordinates do not move, the first one seen stays
+        if (byPinCode.putIfAbsent(point.pinCode(), point) == null) {
+            cells.compute(cell(row(point.latitude()), wrap(column(point.longitude()))), (key, points) -> {
+                List<Point> updated = points == null ? new ArrayList<>(1) : new ArrayList<>(points);
+                updated.add(point);
+                return List.copyOf(updated);
+            });
+        }
+    }
+
+    /**
+     * Pin codes within {@code radiusKm} of the given coordinates, nearest first, at most {@code limit} of them.
+     */
+    public List<Nearby> within(double latitude, double longitude, double radiusKm, int limit) {
+        if (radiusKm <= 0 || limit <= 0 || byPinCode.isEmpty()) {
+            return List.of();
+        }
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        // Degrees of longitude shrink towards the poles; near them the whole band is searched
+        double cosine = Math.cos(Math.toRadians(Math.min(Math.abs(latitude) + latitudeSpan, 90)));
+        double longitudeSpan = cosine < 1e-6 ? 180 : Math.min(radiusKm / (KM_PER_DEGREE * cosine), 180);
+
+        List<Nearby> found = new ArrayList<>();
+        int lastRow = row(latitude + latitudeSpan);
+        int firstColumn = column(longitude - longitudeSpan);
+        int lastColumn = column(longitude + longitudeSpan);
+        if (lastColumn - firstColumn >= COLUMNS) {
+            // The box goes all the way round, visit every column once
+            firstColumn = FIRST_COLUMN;
+            lastColumn = FIRST_COLUMN + COLUMNS - 1;
+        }
+        for (int row = row(latitude - latitudeSpan); row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Point> points = cells.get(cell(row, wrap(column)));
+                if (points == null) {
+                    continue;
+                }
+                for (Point point : points) {
+                    double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radiusKm) {
+                        found.add(new Nearby(point.pinCode(), distance));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return found.size() > limit ? List.copyOf(found.subList(0, limit)) : found;
+    }
+
+    public int size() {
+        return byPinCode.size();
+    }
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        // Haversine
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(dLatitude / 2), 2) + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    // Columns past the antimeridian continue on the other side
+    private static int wrap(int column) {
+        return Math.floorMod(column - FIRST_COLUMN, COLUMNS) + FIRST_COLUMN;
+    }
+
+    private static long cell(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
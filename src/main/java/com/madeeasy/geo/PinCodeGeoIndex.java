@@ -0,0 +1,181 @@
+package com.madeeasy.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory pin code to coordinates table, loaded once from a CSV of {@code pinCode,latitude,longitude,cityName}
+ * rows. Pin codes are kept as a sorted {@code int[]} with the coordinates and city names in parallel arrays,
+ * so a lookup is a binary search over primitives: no allocation and no I/O.
+ * <p>
+ * Usage is slot based: {@link #slot(String)} returns the row of a pin code, or a negative value when it is not
+ * in the table, and the accessors read that row.
+ */
+public final class PinCodeGeoIndex {
+
+    private static final PinCodeGeoIndex EMPTY = new PinCodeGeoIndex(new int[0], new double[0], new double[0], new String[0]);
+
+    private final int[] pinCodes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final String[] cityNames;
+
+    private PinCodeGeoIndex(int[] pinCodes, double[] latitudes, double[] longitudes, String[] cityNames) {
+        this.pinCodes = pinCodes;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cityNames = cityNames;
+    }
+
+    public static PinCodeGeoIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Reads the CSV. A first line that does not start with a digit is taken as a header; blank lines are skipped.
+     * When a pin code appears twice the last row wins.
+     */
+    public static PinCodeGeoIndex load(InputStream in) {
+        int size = 0;
+        int[] pins = new int[20_000];
+        double[] lats = new double[20_000];
+        double[] lons = new double[20_000];
+        String[] cities = new String[20_000];
+        // Thousands of pin codes share a district name, keep one String per name
+        Map<String, String> names = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                    continue;
+                }
+                String[] columns = line.split(",", 4);
+                int pinCode = parsePinCode(columns[0].trim());
+                if (columns.length < 3 || pinCode < 0) {
+                    throw new IllegalArgumentException("Malformed geo index row " + lineNumber + ": " + line);
+                }
+                if (size == pins.length) {
+                    int capacity = size * 2;
+                    pins = Arrays.copyOf(pins, capacity);
+                    lats = Arrays.copyOf(lats, capacity);
+                    lons = Arrays.copyOf(lons, capacity);
+                    cities = Arrays.copyOf(cities, capacity);
+                }
+                pins[size] = pinCode;
+                try {
+                    lats[size] = Double.parseDouble(columns[1].trim());
+                    lons[size] = Double.parseDouble(columns[2].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed geo index row " + lineNumber + ": " + line, e);
+                }
+                String city = columns.length == 4 ? columns[3].trim() : "";
+                cities[size] = city.isEmpty() ? null : names.computeIfAbsent(city, c -> c);
+                size++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read geo index", e);
+        }
+
+        return sorted(size, pins, lats, lons, cities);
+    }
+
+    private static PinCodeGeoIndex sorted(int size, int[] pins, double[] lats, double[] lons, String[] cities) {
+        // Sort row numbers by pin code, then lay the columns out in that order
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> pins[a] != pins[b] ? Integer.compare(pins[a], pins[b]) : Integer.compare(a, b));
+
+        int[] sortedPins = new int[size];
+        double[] sortedLats = new double[size];
+        double[] sortedLons = new double[size];
+        String[] sortedCities = new String[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            // Duplicates are adjacent and in file order, so overwriting keeps the last one
+            if (count > 0 && sortedPins[count - 1] == pins[row]) {
+                count--;
+            }
+            sortedPins[count] = pins[row];
+            sortedLats[count] = lats[row];
+            sortedLons[count] = lons[row];
+            sortedCities[count] = cities[row];
+            count++;
+        }
+        return new PinCodeGeoIndex(Arrays.copyOf(sortedPins, count), Arrays.copyOf(sortedLats, count),
+                Arrays.copyOf(sortedLons, count), Arrays.copyOf(sortedCities, count));
+    }
+
+    /**
+     * Row of {@code pinCode}, or a negative value when the pin code is unknown or not six digits.
+     */
+    public int slot(String pinCode) {
+        int value = parsePinCode(pinCode);
+        return value < 0 ? -1 : Arrays.binarySearch(pinCodes, value);
+    }
+
+    public double latitude(int slot) {
+        return latitudes[slot];
+    }
+
+    public double longitude(int slot) {
+        return longitudes[slot];
+    }
+
+    public String cityName(int slot) {
+        return cityNames[slot];
+    }
+
+    public int size() {
+        return pinCodes.length;
+    }
+
+    /**
+     * Approximate heap used by the table: the four arrays plus each distinct city name (compact Latin-1 strings).
+     */
+    public long estimatedBytes() {
+        long bytes = 4 * 16 + (long) pinCodes.length * (4 + 8 + 8 + 4);
+        Set<String> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String city : cityNames) {
+            if (city != null && distinct.add(city)) {
+                bytes += 24 + 16 + align(city.length());
+            }
+        }
+        return bytes;
+    }
+
+    private static long align(int bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // Indian pin codes are exactly six digits; anything else cannot be in the table
+    private static int parsePinCode(String pinCode) {
+        if (pinCode == null || pinCode.length() != 6) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = pinCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
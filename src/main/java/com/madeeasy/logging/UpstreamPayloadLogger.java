@@ -0,0 +1,30 @@
+package com.madeeasy.logging;
+
+import com.madeeasy.config.WeatherProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Debug logging of OpenWeather response bodies, for a sample of the calls only. Off unless this class's logger is
+ * at DEBUG, which can be switched at runtime:
+ * {@code POST /actuator/loggers/com.madeeasy.logging.UpstreamPayloadLogger {"configuredLevel":"DEBUG"}}.
+ * The level check comes first, so with DEBUG off a call costs no random number and no string building.
+ */
+@Slf4j
+@Component
+public class UpstreamPayloadLogger {
+
+    private final double sampleRate;
+
+    public UpstreamPayloadLogger(WeatherProperties weatherProperties) {
+        this.sampleRate = weatherProperties.getLogging().getPayloadSampleRate();
+    }
+
+    public void log(String endpoint, String pinCode, Object payload) {
+        if (log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.debug("OpenWeather {} response for {}: {}", endpoint, pinCode, payload);
+        }
+    }
+}
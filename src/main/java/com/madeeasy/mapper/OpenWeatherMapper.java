@@ -0,0 +1,63 @@
+package com.madeeasy.mapper;
+
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+
+import java.time.LocalDate;
+
+/**
+ * Maps the typed OpenWeather responses onto our entities. Sections missing from a response
+ * simply leave the corresponding columns null.
+ */
+public final class OpenWeatherMapper {
+
+    private OpenWeatherMapper() {
+    }
+
+    public static PinCodeLocation toLocation(String pinCode, GeocodingResponse response) {
+        if (response.lat() == null || response.lon() == null) {
+            throw new RuntimeException("Geocoding response for " + pinCode + " has no coordinates");
+        }
+        return PinCodeLocation.builder()
+                .pinCode(pinCode)
+                .latitude(response.lat())
+                .longitude(response.lon())
+                .build();
+    }
+
+    public static WeatherInfo toWeatherInfo(CurrentWeatherResponse response, PinCodeLocation location,
+                                            String pinCode, LocalDate forDate) {
+        CurrentWeatherResponse.Sys sys = response.sys();
+        return WeatherInfo.builder()
+                .pinCode(pinCode)
+                .date(forDate)
+                .country(sys != null ? sys.country() : null)
+                .sunriseTime(sys != null ? sys.sunrise() : null)
+                .sunsetTime(sys != null ? sys.sunset() : null)
+                .timezoneOffset(response.timezone())
+                .location(location)
+                .build();
+    }
+
+    public static WeatherDetail toWeatherDetail(CurrentWeatherResponse response) {
+        // OpenWeather lists the primary condition first
+        CurrentWeatherResponse.Weather condition = response.weather() == null || response.weather().isEmpty()
+                ? null : response.weather().get(0);
+        CurrentWeatherResponse.Main main = response.main();
+        return WeatherDetail.builder()
+                .main(condition != null ? condition.main() : null)
+                .description(condition != null ? condition.description() : null)
+                .icon(condition != null ? condition.icon() : null)
+                .temp(main != null ? main.temp() : null)
+                .feelsLike(main != null ? main.feelsLike() : null)
+                .humidity(main != null ? main.humidity() : null)
+                .pressure(main != null ? main.pressure() : null)
+                .cloudiness(response.clouds() != null ? response.clouds().all() : null)
+                .windSpeed(response.wind() != null ? response.wind().speed() : null)
+                .visibility(response.visibility())
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.madeeasy.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Times each stage of loading weather that is not already in memory, as {@code weather.stage} tagged with
+ * {@code stage}, {@code outcome} and, for failures, {@code exception}. The timers publish percentile histograms,
+ * so per stage latency percentiles can be aggregated across instances from the Prometheus endpoint.
+ * L1 cache hits are not timed here; Caffeine's own {@code cache.gets} metrics cover them.
+ */
+@Component
+public class WeatherStageMetrics {
+
+    public static final String DB_LOOKUP = "db-lookup";             // weather_info row for (pinCode, date)
+    public static final String SHARED_LOOKUP = "shared-lookup";     // weather another instance put in the shared tier
+    public static final String LOCATION_LOOKUP = "location-lookup"; // stored pin_code_location row
+    public static final String GEOCODING = "geocoding";             // OpenWeather geocoding call
+    public static final String NEARBY_REUSE = "nearby-reuse";       // same-day weather of a nearby pin code
+    public static final String WEATHER_API = "weather-api";         // OpenWeather current weather call
+    public static final String MAPPING = "mapping";                 // OpenWeather response to entities
+    public static final String PERSIST = "persist";                 // insert of the row and its details
+
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private final Meter.MeterProvider<Timer> timers;
+
+    public WeatherStageMetrics(MeterRegistry meterRegistry) {
+        this.timers = Timer.builder("weather.stage")
+                .description("Time spent in each stage of loading weather data")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))      // in-memory H2 lookups are this quick
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} and records it under {@code stage}, as {@code success} or {@code error}.
+     */
+    public <T> T record(String stage, Supplier<T> call) {
+        return record(stage, call, result -> SUCCESS);
+    }
+
+    /**
+     * Runs {@code call} and records it under {@code stage} with the outcome {@code outcome} derives from the result,
+     * or {@code error} when the call throws.
+     */
+    public <T> T record(String stage, Supplier<T> call, Function<? super T, String> outcome) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            timers.withTags("stage", stage, "outcome", ERROR, "exception", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        timers.withTags("stage", stage, "outcome", outcome.apply(result), "exception", "none")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Starts {@code call} and records it under {@code stage} once the future it returns completes.
+     */
+    public <T> CompletableFuture<T> recordAsync(String stage, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        return call.get().whenComplete((result, failure) -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            timers.withTags("stage", stage, "outcome", cause == null ? SUCCESS : ERROR,
+                            "exception", cause == null ? "none" : cause.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.madeeasy.prewarm;
+
+import com.madeeasy.config.WeatherProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts user requests per pin code so the prewarmer knows which ones are hot, and whether each request
+ * was answered warm (straight from the in-memory cache) or cold (database or OpenWeather on the request path).
+ * Counts are halved after every prewarm run, so the ranking follows recent demand rather than all-time totals.
+ */
+@Component
+public class PinCodeDemandTracker {
+
+    private final Map<String, AtomicLong> demand = new ConcurrentHashMap<>();
+    private final int maxTracked;
+    private final Counter warm;
+    private final Counter cold;
+
+    public PinCodeDemandTracker(WeatherProperties weatherProperties, MeterRegistry meterRegistry) {
+        this.maxTracked = weatherProperties.getPrewarm().getMaxTrackedPinCodes();
+        this.warm = Counter.builder("weather.requests").tag("served", "warm")
+                .description("Weather lookups answered from the in-memory cache").register(meterRegistry);
+        this.cold = Counter.builder("weather.requests").tag("served", "cold")
+                .description("Weather lookups that had to load from the database or OpenWeather").register(meterRegistry);
+    }
+
+    public void recordWarm(String pinCode) {
+        warm.increment();
+        count(pinCode);
+    }
+
+    public void recordCold(String pinCode) {
+        cold.increment();
+        count(pinCode);
+    }
+
+    private void count(String pinCode) {
+        AtomicLong counter = demand.get(pinCode);
+        if (counter == null) {
+            // Unknown keys stop being tracked once the table is full, until the next decay frees room
+            if (demand.size() >= maxTracked) {
+                return;
+            }
+            counter = demand.computeIfAbsent(pinCode, p -> new AtomicLong());
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * The {@code k} most requested pin codes, most requested first.
+     */
+    public List<String> topPinCodes(int k) {
+        Comparator<Map.Entry<String, Long>> byCount = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(k + 1, byCount);
+        for (Map.Entry<String, AtomicLong> entry : demand.entrySet()) {
+            top.offer(Map.entry(entry.getKey(), entry.getValue().get()));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<String> pinCodes = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            pinCodes.add(0, top.poll().getKey());
+        }
+        return pinCodes;
+    }
+
+    /**
+     * Halves every count and forgets pin codes that drop to zero.
+     */
+    public void decay() {
+        demand.values().removeIf(counter -> counter.updateAndGet(c -> c / 2) == 0);
+    }
+}
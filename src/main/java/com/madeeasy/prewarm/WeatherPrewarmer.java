@@ -0,0 +1,91 @@
+package com.madeeasy.prewarm;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.service.WeatherService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads today's weather for the hottest pin codes before users ask for it, by default just after midnight
+ * when every "today" lookup would otherwise start cold. Loads go through {@link WeatherService#warmUp},
+ * i.e. the same single-flight, persistence and cache path as a user request. They run on virtual threads,
+ * at most {@code max-concurrency} at a time and started no faster than {@code requests-per-second}.
+ */
+@Slf4j
+@Component
+public class WeatherPrewarmer {
+
+    private final WeatherService weatherService;
+    private final PinCodeDemandTracker demandTracker;
+    private final WeatherProperties.Prewarm settings;
+    private final Clock clock;
+    private final Counter fetched;
+    private final Counter alreadyWarm;
+    private final Counter failed;
+
+    public WeatherPrewarmer(WeatherService weatherService, PinCodeDemandTracker demandTracker,
+                            WeatherProperties weatherProperties, Clock clock, MeterRegistry meterRegistry) {
+        this.weatherService = weatherService;
+        this.demandTracker = demandTracker;
+        this.settings = weatherProperties.getPrewarm();
+        this.clock = clock;
+        this.fetched = meterRegistry.counter("weather.prewarm.loads", "outcome", "loaded");
+        this.alreadyWarm = meterRegistry.counter("weather.prewarm.loads", "outcome", "already-warm");
+        this.failed = meterRegistry.counter("weather.prewarm.loads", "outcome", "failed");
+    }
+
+    @Scheduled(cron = "${weather.prewarm.cron}", zone = "${weather.zone}")
+    public void prewarm() {
+        prewarm(LocalDate.now(clock));
+    }
+
+    public void prewarm(LocalDate forDate) {
+        List<String> pinCodes = demandTracker.topPinCodes(settings.getTopK());
+        demandTracker.decay();
+        if (pinCodes.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, settings.getRequestsPerSecond());
+        Semaphore permits = new Semaphore(settings.getMaxConcurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = System.nanoTime();
+            for (String pinCode : pinCodes) {
+                permits.acquire();
+                // Pace the starts so a large top-K cannot burst through the OpenWeather quota
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                next = Math.max(next, System.nanoTime()) + interval;
+                executor.submit(() -> {
+                    try {
+                        (weatherService.warmUp(pinCode, forDate) ? fetched : alreadyWarm).increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                        log.warn("Prewarm of {} for {} failed: {}", pinCode, forDate, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Prewarm for {} interrupted", forDate);
+        }
+        log.info("Prewarmed {} pin codes for {} in {} ms", pinCodes.size(), forDate,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
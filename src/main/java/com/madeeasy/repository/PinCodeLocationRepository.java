@@ -2,9 +2,18 @@ package com.madeeasy.repository;
 
 import com.madeeasy.entity.PinCodeLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface PinCodeLocationRepository extends JpaRepository<PinCodeLocation, Long> {
     Optional<PinCodeLocation> findByPinCode(String pinCode);
+
+    // Only touches the row when the name actually changed
+    @Modifying
+    @Query("update PinCodeLocation l set l.cityName = :cityName " +
+            "where l.id = :id and (l.cityName is null or l.cityName <> :cityName)")
+    int updateCityName(@Param("id") Long id, @Param("cityName") String cityName);
 }
@@ -0,0 +1,29 @@
+package com.madeeasy.repository;
+
+import com.madeeasy.entity.WeatherDailySummary;
+import com.madeeasy.entity.WeatherDailySummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface WeatherDailySummaryRepository extends JpaRepository<WeatherDailySummary, WeatherDailySummaryId> {
+
+    // One insert ... select for the whole batch; days summarized by an earlier, interrupted run are skipped.
+    // main is the day's first detail (lowest id), the primary condition OpenWeather listed; a day without
+    // details still gets its row, with nulls
+    @Modifying
+    @Query("insert into WeatherDailySummary (pinCode, date, main, temp, feelsLike, humidity, pressure, windSpeed) " +
+            "select i.pinCode, i.date, " +
+            "(select p.main from WeatherDetail p where p.id = " +
+            "(select min(f.id) from WeatherDetail f where f.weatherInfo.id = i.id)), " +
+            "avg(d.temp), avg(d.feelsLike), " +
+            "cast(avg(d.humidity) as Integer), cast(avg(d.pressure) as Integer), avg(d.windSpeed) " +
+            "from WeatherInfo i left join i.weatherDetails d " +
+            "where i.id in :ids and not exists (select 1 from WeatherDailySummary s " +
+            "where s.pinCode = i.pinCode and s.date = i.date) " +
+            "group by i.id, i.pinCode, i.date")
+    int summarize(@Param("ids") Collection<Long> ids);
+}
@@ -2,6 +2,16 @@ package com.madeeasy.repository;
 
 import com.madeeasy.entity.WeatherDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface WeatherDetailRepository extends JpaRepository<WeatherDetail, Long> {
+
+    // Set based delete, nothing is loaded into the session
+    @Modifying
+    @Query("delete from WeatherDetail d where d.weatherInfo.id in :weatherInfoIds")
+    int deleteByWeatherInfoIdIn(@Param("weatherInfoIds") Collection<Long> weatherInfoIds);
 }
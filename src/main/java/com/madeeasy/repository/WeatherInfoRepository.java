@@ -1,11 +1,42 @@
 package com.madeeasy.repository;
 
 import com.madeeasy.entity.WeatherInfo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface WeatherInfoRepository extends JpaRepository<WeatherInfo, Long> {
+    // Backed by the unique (pin_code, date) index; location and details come back in the same round trip
+    @EntityGraph(attributePaths = {"location", "weatherDetails"})
     Optional<WeatherInfo> findByPinCodeAndDate(String pinCode, LocalDate forDate);
+
+    // Details are fetched in the same query, the rows go straight into the L1 cache
+    @EntityGraph(attributePaths = {"location", "weatherDetails"})
+    List<WeatherInfo> findByDateAndPinCodeIn(LocalDate date, Collection<String> pinCodes);
+
+    // Last day we have for a pin code, served when OpenWeather cannot be reached. The subquery picks the day on the
+    // (pin_code, date) index, so only that row and its details are read; a "first" limit next to the details fetch
+    // would be applied in memory, after loading every day
+    @EntityGraph(attributePaths = {"location", "weatherDetails"})
+    @Query("select i from WeatherInfo i where i.pinCode = :pinCode"
+            + " and i.date = (select max(w.date) from WeatherInfo w where w.pinCode = :pinCode)")
+    Optional<WeatherInfo> findLatestByPinCode(@Param("pinCode") String pinCode);
+
+    // Oldest expired rows first, a bounded batch at a time; served by the date index
+    @Query("select i.id from WeatherInfo i where i.date < :cutoff order by i.date, i.id")
+    List<Long> findIdsByDateBefore(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+    // One window of a range request, read on the unique (pin_code, date) index. The range reader keeps the window
+    // narrow, so the list stays small even though the details fetch rules out a row limit in SQL
+    @EntityGraph(attributePaths = {"location", "weatherDetails"})
+    @Query("select i from WeatherInfo i where i.pinCode = :pinCode and i.date between :from and :to order by i.date")
+    List<WeatherInfo> findByPinCodeAndDateBetween(@Param("pinCode") String pinCode,
+                                                  @Param("from") LocalDate from, @Param("to") LocalDate to);
 }
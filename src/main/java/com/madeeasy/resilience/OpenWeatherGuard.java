@@ -0,0 +1,151 @@
+package com.madeeasy.resilience;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Every call to OpenWeather goes through here. In order: the circuit breaker rejects calls while OpenWeather is
+ * failing, the token bucket keeps us inside the API quota, and the bulkhead caps how many calls are in flight.
+ * Timeouts, 5xx and 429 count as failures; anything that stops a call from being made or completing normally
+ * comes out as {@link OpenWeatherUnavailableException}, so callers can fall back to data we already have.
+ */
+@Component
+public class OpenWeatherGuard {
+
+    private static final String NAME = "openWeather";
+
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+
+    public OpenWeatherGuard(WeatherProperties weatherProperties, MeterRegistry meterRegistry) {
+        WeatherProperties.Resilience settings = weatherProperties.getResilience();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .waitDurationInOpenState(settings.getOpenStateDuration())
+                .permittedNumberOfCallsInHalfOpenState(settings.getHalfOpenCalls())
+                .recordException(OpenWeatherGuard::isUpstreamFailure)
+                // Our own limits turning a call away says nothing about OpenWeather's health
+                .ignoreExceptions(RequestNotPermitted.class, BulkheadFullException.class)
+                .build());
+        RateLimiterRegistry rateLimiters = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(settings.getRequestsPerSecond())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(settings.getRateLimitTimeout())
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(settings.getBulkheadTimeout())
+                .build());
+
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.rateLimiter = rateLimiters.rateLimiter(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiters).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        Supplier<T> guarded = CircuitBreaker.decorateSupplier(circuitBreaker,
+                RateLimiter.decorateSupplier(rateLimiter,
+                        Bulkhead.decorateSupplier(bulkhead, upstreamCall)));
+        try {
+            return guarded.get();
+        } catch (RuntimeException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     * {@link #call} for a call that completes later. The guards are the same, but none of them waits on a thread:
+     * the token bucket hands out a reservation, and the call starts on {@code executor} once its permit is due,
+     * never on the thread that asked. The returned future fails with {@link OpenWeatherUnavailableException} where
+     * {@link #call} would throw it.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<? extends CompletionStage<T>> upstreamCall, Executor executor) {
+        Supplier<CompletionStage<T>> guarded = CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                () -> afterPermit(Bulkhead.decorateCompletionStage(bulkhead, upstreamCall::get), executor));
+        CompletionStage<T> call;
+        try {
+            call = guarded.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(translate(e));
+        }
+        return call.toCompletableFuture().exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                translate(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e)));
+    }
+
+    // RateLimiter.decorateCompletionStage would park the calling thread for up to rate-limit-timeout
+    private <T> CompletionStage<T> afterPermit(Supplier<CompletionStage<T>> call, Executor executor) {
+        long nanosToWait = rateLimiter.reservePermission();
+        if (nanosToWait < 0) {
+            return CompletableFuture.failedFuture(RequestNotPermitted.createRequestNotPermitted(rateLimiter));
+        }
+        Executor start = nanosToWait == 0 ? executor
+                : CompletableFuture.delayedExecutor(nanosToWait, TimeUnit.NANOSECONDS, executor);
+        return CompletableFuture.supplyAsync(call, start).thenCompose(Function.identity());
+    }
+
+    private static RuntimeException translate(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return new OpenWeatherUnavailableException("OpenWeather circuit is open", e);
+        }
+        if (e instanceof RequestNotPermitted) {
+            return new OpenWeatherUnavailableException("OpenWeather rate limit reached", e);
+        }
+        if (e instanceof BulkheadFullException) {
+            return new OpenWeatherUnavailableException("Too many concurrent OpenWeather calls", e);
+        }
+        if (isUpstreamFailure(e)) {
+            return new OpenWeatherUnavailableException("OpenWeather call failed: " + e.getMessage(), e);
+        }
+        return e instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(e);
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // A 404 for an unknown pin code is a valid answer; timeouts, 5xx and throttling are not
+    private static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
@@ -0,0 +1,45 @@
+package com.madeeasy.retention;
+
+import com.madeeasy.repository.WeatherDailySummaryRepository;
+import com.madeeasy.repository.WeatherDetailRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Purges one bounded batch of expired weather in its own short transaction, with set based statements only:
+ * no entity is loaded, so nothing is cascaded row by row and locks are held for one batch at most.
+ */
+@Component
+@RequiredArgsConstructor
+public class WeatherRetentionBatch {
+
+    private final WeatherInfoRepository weatherInfoRepository;
+    private final WeatherDetailRepository weatherDetailRepository;
+    private final WeatherDailySummaryRepository weatherDailySummaryRepository;
+
+    /**
+     * Deletes up to {@code batchSize} weather_info rows dated before {@code cutoff}, details first.
+     *
+     * @return rows deleted and summaries written; fewer than {@code batchSize} deleted means nothing is left
+     */
+    @Transactional
+    public Result purge(LocalDate cutoff, int batchSize, boolean summarize) {
+        List<Long> ids = weatherInfoRepository.findIdsByDateBefore(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return new Result(0, 0);
+        }
+        int summarized = summarize ? weatherDailySummaryRepository.summarize(ids) : 0;
+        weatherDetailRepository.deleteByWeatherInfoIdIn(ids);
+        weatherInfoRepository.deleteAllByIdInBatch(ids);
+        return new Result(ids.size(), summarized);
+    }
+
+    public record Result(int deleted, int summarized) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.madeeasy.retention;
+
+import com.madeeasy.config.WeatherProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Enforces {@code weather.retention}: weather older than {@code keep-days} is deleted in batches of
+ * {@code batch-size}, one transaction each, with a pause between batches so foreground reads and writes
+ * are never queued behind one long purge. With {@code summarize} on, each purged day leaves a
+ * weather_daily_summary row behind.
+ */
+@Slf4j
+@Component
+public class WeatherRetentionJob {
+
+    private final WeatherRetentionBatch retentionBatch;
+    private final WeatherProperties.Retention settings;
+    private final Clock clock;
+    private final Counter deleted;
+    private final Counter summarized;
+
+    public WeatherRetentionJob(WeatherRetentionBatch retentionBatch, WeatherProperties weatherProperties,
+                               Clock clock, MeterRegistry meterRegistry) {
+        this.retentionBatch = retentionBatch;
+        this.settings = weatherProperties.getRetention();
+        this.clock = clock;
+        this.deleted = meterRegistry.counter("weather.retention.rows", "action", "deleted");
+        this.summarized = meterRegistry.counter("weather.retention.rows", "action", "summarized");
+    }
+
+    @Scheduled(cron = "${weather.retention.cron}", zone = "${weather.zone}")
+    public void purge() {
+        purgeBefore(LocalDate.now(clock).minusDays(settings.getKeepDays()));
+    }
+
+    /**
+     * Deletes everything dated before {@code cutoff}.
+     *
+     * @return number of weather_info rows deleted
+     */
+    public long purgeBefore(LocalDate cutoff) {
+        long start = System.nanoTime();
+        long total = 0;
+        WeatherRetentionBatch.Result result;
+        do {
+            result = retentionBatch.purge(cutoff, settings.getBatchSize(), settings.isSummarize());
+            deleted.increment(result.deleted());
+            summarized.increment(result.summarized());
+            total += result.deleted();
+            if (result.deleted() == settings.getBatchSize() && !pause()) {
+                break;
+            }
+        } while (result.deleted() == settings.getBatchSize());
+
+        if (total > 0) {
+            log.info("Retention deleted {} weather rows before {} in {} ms", total, cutoff,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(settings.getPauseBetweenBatches());
+            return true;
+        } catch (InterruptedException e) {
+            // Shutting down: stop after the batch that just committed, the next run picks up the rest
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,9 +1,38 @@
 package com.madeeasy.service;
 
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
 import com.madeeasy.entity.WeatherInfo;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WeatherService {
+    /**
+     * Weather for (pinCode, date). While OpenWeather is unavailable a miss gets the latest day stored for the pin
+     * code instead, so the returned date can differ from {@code forDate}.
+     */
     WeatherInfo getWeatherInfo(String pinCode, LocalDate forDate);
+
+    BatchWeatherResponse getWeatherInfoBatch(Collection<String> pinCodes, LocalDate forDate);
+
+    /**
+     * Loads weather for (pinCode, date) into the caches ahead of demand, without counting as a user request.
+     * Returns false when it was already in memory.
+     */
+    boolean warmUp(String pinCode, LocalDate forDate);
+
+    /**
+     * Hands the stored weather for {@code pinCode} from {@code from} to {@code to} (inclusive) to {@code action},
+     * oldest first, one day at a time. Days that were never fetched are skipped; nothing is fetched from OpenWeather.
+     */
+    void forEachInRange(String pinCode, LocalDate from, LocalDate to, Consumer<WeatherInfoResponse> action);
+
+    /**
+     * Weather for {@code forDate} at the known pin code closest to the coordinates, loaded like
+     * {@link #getWeatherInfo}. Empty when no known pin code lies within {@code weather.nearby.search-radius-km}.
+     */
+    Optional<WeatherInfo> getWeatherNear(double latitude, double longitude, LocalDate forDate);
 }
@@ -0,0 +1,356 @@
+package com.madeeasy.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.shared.SharedWeatherCache;
+import com.madeeasy.concurrent.SingleFlight;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import com.madeeasy.logging.UpstreamPayloadLogger;
+import com.madeeasy.mapper.OpenWeatherMapper;
+import com.madeeasy.metrics.WeatherStageMetrics;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
+import com.madeeasy.resilience.OpenWeatherGuard;
+import com.madeeasy.service.WeatherService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.madeeasy.metrics.WeatherStageMetrics.*;
+
+/**
+ * {@code weather.execution.mode: async}. A single lookup runs as a {@link CompletableFuture} pipeline instead of
+ * on one thread from start to end: the OpenWeather calls go out through the JDK {@link HttpClient}, so nothing is
+ * parked while they wait for a rate limit permit or are in flight, and repository work runs on
+ * {@code database-threads} threads, so lookups queue for the JDBC pool in memory instead of each holding a thread
+ * while they wait for a connection.
+ * <p>
+ * The steps are {@link WeatherServiceImpl}'s, so caching, nearby reuse, write-behind and the last known fallback
+ * behave the same. Batch and near lookups run the same way. Range and warm-up go to {@link WeatherServiceImpl}
+ * unchanged: a range is streamed off the request thread anyway, and warm-up runs in the background. Loads join its
+ * flights, and upstream calls take the same shared cache locks without waiting on a thread. So a key is still
+ * fetched once, whichever mode, caller or instance asks for it.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(prefix = "weather.execution", name = "mode", havingValue = "async")
+public class AsyncWeatherServiceImpl implements WeatherService {
+
+    private final WeatherServiceImpl steps;
+    private final WeatherInfoCache weatherInfoCache;
+    private final PinCodeDemandTracker demandTracker;
+    private final OpenWeatherGuard openWeatherGuard;
+    private final WeatherStageMetrics stageMetrics;
+    private final UpstreamPayloadLogger payloadLogger;
+    private final ObjectMapper objectMapper;
+    private final WeatherProperties weatherProperties;
+    private final SharedWeatherCache sharedCache;
+    private final HttpClient httpClient;
+    private final ExecutorService databaseExecutor;
+    private final ExecutorService upstreamExecutor;
+
+    private final SingleFlight<WeatherCacheKey, WeatherInfo> weatherLoads;
+    private final SingleFlight<String, PinCodeLocation> locationLoads;
+
+    public AsyncWeatherServiceImpl(WeatherServiceImpl steps, WeatherInfoCache weatherInfoCache,
+                                   PinCodeDemandTracker demandTracker, OpenWeatherGuard openWeatherGuard,
+                                   WeatherStageMetrics stageMetrics, UpstreamPayloadLogger payloadLogger,
+                                   ObjectMapper objectMapper, WeatherProperties weatherProperties,
+                                   SharedWeatherCache sharedCache) {
+        this.steps = steps;
+        this.weatherLoads = steps.weatherLoads();
+        this.locationLoads = steps.locationLoads();
+        this.weatherInfoCache = weatherInfoCache;
+        this.demandTracker = demandTracker;
+        this.openWeatherGuard = openWeatherGuard;
+        this.stageMetrics = stageMetrics;
+        this.payloadLogger = payloadLogger;
+        this.objectMapper = objectMapper;
+        this.weatherProperties = weatherProperties;
+        this.sharedCache = sharedCache;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(weatherProperties.getHttpClient().getConnectTimeout())
+                .build();
+        AtomicInteger threads = new AtomicInteger();
+        this.databaseExecutor = Executors.newFixedThreadPool(weatherProperties.getExecution().getDatabaseThreads(),
+                task -> Thread.ofPlatform().name("weather-db-" + threads.incrementAndGet()).daemon().unstarted(task));
+        // Starts OpenWeather calls once the guard lets them through, so no database thread is kept for that
+        this.upstreamExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-upstream-", 1).factory());
+    }
+
+    @PreDestroy
+    public void close() {
+        databaseExecutor.shutdown();
+        upstreamExecutor.shutdown();
+        httpClient.close();
+    }
+
+    @Override
+    public WeatherInfo getWeatherInfo(String pinCode, LocalDate forDate) {
+        return join(getWeatherInfoAsync(pinCode, forDate));
+    }
+
+    // Same exceptions as the blocking mode, not the wrapper
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<WeatherInfo> getWeatherInfoAsync(String pinCode, LocalDate forDate) {
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        Optional<WeatherInfo> inMemory = weatherInfoCache.get(key);
+        if (inMemory.isPresent()) {
+            demandTracker.recordWarm(pinCode);
+            steps.revalidateIfStale(inMemory.get());
+            return CompletableFuture.completedFuture(inMemory.get());
+        }
+        demandTracker.recordCold(pinCode);
+        return weatherLoads.executeAsync(key, () -> load(key)).thenApply(weatherInfo -> {
+            steps.revalidateIfStale(weatherInfo);
+            return weatherInfo;
+        });
+    }
+
+    private CompletableFuture<WeatherInfo> load(WeatherCacheKey key) {
+        return onDatabase(() -> steps.findStored(key)).thenCompose(stored -> stored
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> fetchOrFallback(key)));
+    }
+
+    private CompletableFuture<WeatherInfo> fetchOrFallback(WeatherCacheKey key) {
+        return fetchAndStore(key.pinCode(), key.date()).exceptionallyCompose(e -> {
+            Throwable cause = cause(e);
+            if (cause instanceof OpenWeatherUnavailableException unavailable) {
+                return onDatabase(() -> steps.lastKnown(key.pinCode(), key.date(), unavailable));
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private CompletableFuture<WeatherInfo> fetchAndStore(String pinCode, LocalDate forDate) {
+        return locationLoads.executeAsync(pinCode, () -> location(pinCode))
+                .thenCompose(location -> onDatabase(() -> steps.reuseNearby(location, pinCode, forDate))
+                        .thenCompose(reused -> reused
+                                .map(CompletableFuture::completedFuture)
+                                .orElseGet(() -> fetchOnce(location, pinCode, forDate))))
+                .thenCompose(weatherInfo -> onDatabase(() -> steps.store(weatherInfo)));
+    }
+
+    private CompletableFuture<PinCodeLocation> location(String pinCode) {
+        return onDatabase(() -> steps.findLocation(pinCode)).thenCompose(found -> found
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> steps.locationFromIndex(pinCode)
+                        .map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> geocodeOnce(pinCode))
+                        .thenCompose(location -> onDatabase(() -> steps.saveLocation(location)))));
+    }
+
+    private CompletableFuture<WeatherInfo> fetchOnce(PinCodeLocation location, String pinCode, LocalDate forDate) {
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        return sharedCache.withLockAsync(WeatherServiceImpl.lockName(key), () -> sharedCache.get(key)
+                .map(shared -> CompletableFuture.completedFuture(shared.toWeatherInfo(location)))
+                .orElseGet(() -> fetchWeatherData(location, pinCode, forDate).thenApply(fetched -> {
+                    sharedCache.put(WeatherInfoResponse.from(fetched));
+                    return fetched;
+                })));
+    }
+
+    private CompletableFuture<PinCodeLocation> geocodeOnce(String pinCode) {
+        String lockName = WeatherServiceImpl.locationLockName(pinCode);
+        return sharedCache.withLockAsync(lockName, () -> sharedCache.getLocation(pinCode)
+                .map(shared -> CompletableFuture.completedFuture(shared.toEntity()))
+                .orElseGet(() -> geocode(pinCode).thenApply(location -> {
+                    sharedCache.putLocation(WeatherInfoResponse.Location.from(location));
+                    return location;
+                })));
+    }
+
+    private CompletableFuture<PinCodeLocation> geocode(String pinCode) {
+        WeatherProperties.OpenWeather openWeather = weatherProperties.getOpenWeather();
+        URI uri = UriComponentsBuilder.fromUriString(openWeather.getGeocodingUrl())
+                .queryParam("zip", pinCode + ",IN")
+                .queryParam("appid", openWeather.getApiKey())
+                .encode().build().toUri();
+        return stageMetrics.recordAsync(GEOCODING, () -> openWeatherGuard.callAsync(() -> get(uri, GeocodingResponse.class), upstreamExecutor))
+                .thenApply(response -> {
+                    payloadLogger.log("geocoding", pinCode, response);
+                    return OpenWeatherMapper.toLocation(pinCode, response);
+                });
+    }
+
+    private CompletableFuture<WeatherInfo> fetchWeatherData(PinCodeLocation location, String pinCode, LocalDate forDate) {
+        WeatherProperties.OpenWeather openWeather = weatherProperties.getOpenWeather();
+        URI uri = UriComponentsBuilder.fromUriString(openWeather.getWeatherUrl())
+                .queryParam("lat", location.getLatitude())
+                .queryParam("lon", location.getLongitude())
+                .queryParam("appid", openWeather.getApiKey())
+                .queryParam("units", "metric")
+                .encode().build().toUri();
+        return stageMetrics.recordAsync(WEATHER_API, () -> openWeatherGuard.callAsync(() -> get(uri, CurrentWeatherResponse.class), upstreamExecutor))
+                .thenApply(weatherData -> {
+                    payloadLogger.log("weather", pinCode, weatherData);
+                    return stageMetrics.record(MAPPING, () -> steps.toWeatherInfo(weatherData, location, pinCode, forDate));
+                });
+    }
+
+    // Failures carry the exceptions RestTemplate would throw, so the guard classifies them the same way
+    private <T> CompletableFuture<T> get(URI uri, Class<T> type) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(weatherProperties.getHttpClient().getReadTimeout())
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = cause(failure);
+                        throw new ResourceAccessException("I/O error on GET request for \"" + uri.getPath() + "\": "
+                                + cause.getMessage(), cause instanceof IOException io ? io : new IOException(cause));
+                    }
+                    HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+                    if (status.is5xxServerError()) {
+                        throw HttpServerErrorException.create(status, "", HttpHeaders.EMPTY, response.body(),
+                                StandardCharsets.UTF_8);
+                    }
+                    if (status.isError()) {
+                        throw HttpClientErrorException.create(status, "", HttpHeaders.EMPTY, response.body(),
+                                StandardCharsets.UTF_8);
+                    }
+                    try {
+                        T body = objectMapper.readValue(response.body(), type);
+                        if (body == null) {
+                            throw new RuntimeException("Failed to fetch valid data from OpenWeather API");
+                        }
+                        return body;
+                    } catch (IOException e) {
+                        throw new RuntimeException("Unreadable OpenWeather response: " + e.getMessage(), e);
+                    }
+                })
+                // Complete with the exception itself rather than a CompletionException around it
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(cause(e)));
+    }
+
+    private static Throwable cause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private <T> CompletableFuture<T> onDatabase(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, databaseExecutor);
+    }
+
+    @Override
+    public BatchWeatherResponse getWeatherInfoBatch(Collection<String> pinCodes, LocalDate forDate) {
+        return join(getWeatherInfoBatchAsync(pinCodes, forDate));
+    }
+
+    public CompletableFuture<BatchWeatherResponse> getWeatherInfoBatchAsync(Collection<String> pinCodes, LocalDate forDate) {
+        Map<String, WeatherInfo> found = new ConcurrentHashMap<>();
+        Set<String> remaining = steps.takeCached(pinCodes, forDate, found);
+        if (remaining.isEmpty()) {
+            return CompletableFuture.completedFuture(steps.batchResponse(pinCodes, forDate, found, Map.of()));
+        }
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        return onDatabase(() -> {
+            steps.takeStored(remaining, forDate, found);
+            return remaining;
+        }).thenCompose(missing -> fetchMissing(missing, forDate, found, errors))
+                .thenApply(done -> steps.batchResponse(pinCodes, forDate, found, errors));
+    }
+
+    // max-parallelism chains, each taking the next pin code once its previous one is done
+    private CompletableFuture<Void> fetchMissing(Set<String> pinCodes, LocalDate forDate,
+                                                 Map<String, WeatherInfo> found, Map<String, String> errors) {
+        Queue<String> queue = new ConcurrentLinkedQueue<>(pinCodes);
+        int chains = Math.min(pinCodes.size(), weatherProperties.getBatch().getMaxParallelism());
+        CompletableFuture<?>[] fetches = new CompletableFuture<?>[chains];
+        for (int i = 0; i < chains; i++) {
+            fetches[i] = fetchNext(queue, forDate, found, errors);
+        }
+        return CompletableFuture.allOf(fetches);
+    }
+
+    private CompletableFuture<Void> fetchNext(Queue<String> queue, LocalDate forDate,
+                                              Map<String, WeatherInfo> found, Map<String, String> errors) {
+        String pinCode = queue.poll();
+        if (pinCode == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        // Shares the flight with any single request for the same key that is already running
+        return weatherLoads.executeAsync(key, () -> weatherInfoCache.get(key)
+                        .map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> fetchOrFallback(key)))
+                .handle((weatherInfo, e) -> {
+                    if (e != null) {
+                        errors.put(pinCode, WeatherServiceImpl.describe(cause(e)));
+                    } else {
+                        found.put(pinCode, weatherInfo);
+                    }
+                    return null;
+                })
+                .thenCompose(done -> fetchNext(queue, forDate, found, errors));
+    }
+
+    @Override
+    public boolean warmUp(String pinCode, LocalDate forDate) {
+        return steps.warmUp(pinCode, forDate);
+    }
+
+    @Override
+    public void forEachInRange(String pinCode, LocalDate from, LocalDate to, Consumer<WeatherInfoResponse> action) {
+        steps.forEachInRange(pinCode, from, to, action);
+    }
+
+    @Override
+    public Optional<WeatherInfo> getWeatherNear(double latitude, double longitude, LocalDate forDate) {
+        return join(getWeatherNearAsync(latitude, longitude, forDate));
+    }
+
+    public CompletableFuture<Optional<WeatherInfo>> getWeatherNearAsync(double latitude, double longitude, LocalDate forDate) {
+        return steps.nearestPinCode(latitude, longitude)
+                .map(pinCode -> getWeatherInfoAsync(pinCode, forDate).thenApply(Optional::of))
+                .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+}
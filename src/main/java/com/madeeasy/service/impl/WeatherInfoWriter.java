@@ -0,0 +1,94 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists a freshly fetched {@link WeatherInfo} in one transaction.
+ * The details are cascaded from the info, ids come from pooled sequences, so Hibernate can defer
+ * the inserts to commit time and send them as JDBC batches together with the location's city name update.
+ */
+@Component
+@RequiredArgsConstructor
+public class WeatherInfoWriter {
+
+    private final WeatherInfoRepository weatherInfoRepository;
+    private final PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Transactional
+    public WeatherInfo save(WeatherInfo weatherInfo) {
+        updateCityName(weatherInfo.getLocation());
+        return weatherInfoRepository.save(weatherInfo);
+    }
+
+    /**
+     * Stores several new rows in one transaction, their inserts share JDBC batches.
+     */
+    @Transactional
+    public List<WeatherInfo> saveAll(List<WeatherInfo> weatherInfos) {
+        weatherInfos.forEach(weatherInfo -> updateCityName(weatherInfo.getLocation()));
+        return weatherInfoRepository.saveAll(weatherInfos);
+    }
+
+    /**
+     * Overwrites the stored row {@code id} with a newer fetch of the same (pinCode, date). The row keeps its id,
+     * its details are replaced.
+     */
+    @Transactional
+    public WeatherInfo refresh(Long id, WeatherInfo fresh) {
+        updateCityName(fresh.getLocation());
+        WeatherInfo stored = weatherInfoRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("WeatherInfo " + id + " no longer exists"));
+        stored.setCountry(fresh.getCountry());
+        stored.setTimezoneOffset(fresh.getTimezoneOffset());
+        stored.setSunriseTime(fresh.getSunriseTime());
+        stored.setSunsetTime(fresh.getSunsetTime());
+        stored.setFetchedAt(fresh.getFetchedAt());
+        // Old details go through orphan removal, the new ones are cascaded
+        stored.getWeatherDetails().clear();
+        for (WeatherDetail detail : fresh.getWeatherDetails()) {
+            detail.setWeatherInfo(stored);
+            stored.getWeatherDetails().add(detail);
+        }
+        return stored;
+    }
+
+    private void updateCityName(PinCodeLocation location) {
+        if (location != null && location.getId() != null && location.getCityName() != null) {
+            // Single UPDATE by id instead of merging the detached location (which would SELECT it first)
+            pinCodeLocationRepository.updateCityName(location.getId(), location.getCityName());
+        }
+    }
+
+    /**
+     * New, unsaved row for {@code pinCode} at {@code location} with the readings of {@code source}, fetchedAt
+     * included. The source is only read, so it may be an instance other threads are serving.
+     */
+    static WeatherInfo copyOf(WeatherInfo source, PinCodeLocation location, String pinCode) {
+        WeatherInfo weatherInfo = WeatherInfo.builder()
+                .pinCode(pinCode)
+                .date(source.getDate())
+                .country(source.getCountry())
+                .timezoneOffset(source.getTimezoneOffset())
+                .sunriseTime(source.getSunriseTime())
+                .sunsetTime(source.getSunsetTime())
+                .fetchedAt(source.getFetchedAt())
+                .location(location)
+                .build();
+        List<WeatherDetail> details = new ArrayList<>();
+        for (WeatherDetail detail : source.getWeatherDetails()) {
+            details.add(detail.toBuilder().id(null).weatherInfo(weatherInfo).build());
+        }
+        weatherInfo.setWeatherDetails(details);
+        return weatherInfo;
+    }
+}
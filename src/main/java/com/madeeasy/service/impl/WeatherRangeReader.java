@@ -0,0 +1,34 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.WeatherInfoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Walks the stored weather of one pin code over a date range, oldest first, in chunks of
+ * {@code weather.range.chunk-days} days. A pin code has at most one row per day, so a chunk holds at most that many
+ * rows. Each chunk is read in its own short transaction and handed to the consumer after it has committed: the heap
+ * holds one chunk however long the range is, and no connection is held while the consumer writes to a slow client.
+ */
+@Component
+@RequiredArgsConstructor
+public class WeatherRangeReader {
+
+    private final WeatherInfoRepository weatherInfoRepository;
+    private final WeatherProperties weatherProperties;
+
+    public void forEach(String pinCode, LocalDate from, LocalDate to, Consumer<WeatherInfo> action) {
+        int chunkDays = weatherProperties.getRange().getChunkDays();
+        // Keyset on the date: the next chunk starts the day after the last one ended
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(chunkDays)) {
+            LocalDate end = start.plusDays(chunkDays - 1L);
+            weatherInfoRepository.findByPinCodeAndDateBetween(pinCode, start, end.isAfter(to) ? to : end)
+                    .forEach(action);
+        }
+    }
+}
@@ -1,177 +1,524 @@
 package com.madeeasy.service.impl;
 
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherFreshness;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.shared.SharedWeatherCache;
+import com.madeeasy.concurrent.SingleFlight;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
 import com.madeeasy.entity.PinCodeLocation;
 import com.madeeasy.entity.WeatherDetail;
 import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import com.madeeasy.geo.NearbyLocationIndex;
+import com.madeeasy.geo.PinCodeGeoIndex;
+import com.madeeasy.logging.UpstreamPayloadLogger;
+import com.madeeasy.mapper.OpenWeatherMapper;
+import com.madeeasy.metrics.WeatherStageMetrics;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
 import com.madeeasy.repository.PinCodeLocationRepository;
-import com.madeeasy.repository.WeatherDetailRepository;
 import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.resilience.OpenWeatherGuard;
 import com.madeeasy.service.WeatherService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.ParameterizedTypeReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import static com.madeeasy.metrics.WeatherStageMetrics.*;
 
 /**
  * Implementation of the WeatherService interface to interact with the OpenWeather API.
  * This service fetches current weather information based on geocoordinates (latitude and longitude).
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class WeatherServiceImpl implements WeatherService {
 
     private final PinCodeLocationRepository pinCodeLocationRepository;
     private final WeatherInfoRepository weatherInfoRepository;
-    private final WeatherDetailRepository weatherDetailRepository;
+    private final WeatherInfoWriter weatherInfoWriter;
     private final RestTemplate restTemplate;
+    private final WeatherInfoCache weatherInfoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherProperties weatherProperties;
+    private final PinCodeGeoIndex pinCodeGeoIndex;
+    private final PinCodeDemandTracker demandTracker;
+    private final WeatherFreshness weatherFreshness;
+    private final OpenWeatherGuard openWeatherGuard;
+    private final WeatherStageMetrics stageMetrics;
+    private final UpstreamPayloadLogger payloadLogger;
+    private final WeatherRangeReader weatherRangeReader;
+    private final NearbyLocationIndex nearbyLocationIndex;
+    private final WeatherWriteBehind writeBehind;
+    private final SharedWeatherCache sharedCache;
+
+    // Concurrent misses for the same key share one upstream fetch instead of each calling OpenWeather
+    private final SingleFlight<WeatherCacheKey, WeatherInfo> weatherLoads = new SingleFlight<>();
+    private final SingleFlight<String, PinCodeLocation> locationLoads = new SingleFlight<>();
 
-    private static final String OPEN_WEATHER_API_KEY = "YOUR_API_KEY"; // Replace with your actual OpenWeather API key
-    private static final String OPEN_WEATHER_URL = "https://api.openweathermap.org/data/2.5/weather";
-    private static final String GEOCODING_URL = "https://api.openweathermap.org/geo/1.0/zip";
+    // Keys with a background refresh running; a stale row gets one refresh no matter how many callers see it
+    private final Set<WeatherCacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void close() {
+        // Refreshes still running finish while the repositories they write through are open
+        refreshExecutor.close();
+    }
 
     @Override
     public WeatherInfo getWeatherInfo(String pinCode, LocalDate forDate) {
+        // Hot (pinCode, date) pairs are answered from memory without touching Hibernate
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        Optional<WeatherInfo> inMemory = weatherInfoCache.get(key);
+        WeatherInfo weatherInfo;
+        if (inMemory.isPresent()) {
+            demandTracker.recordWarm(pinCode);
+            weatherInfo = inMemory.get();
+        } else {
+            demandTracker.recordCold(pinCode);
+            weatherInfo = weatherLoads.execute(key, () -> loadWeatherInfo(key));
+        }
+
+        // Stale or not, the caller gets what we have right away
+        revalidateIfStale(weatherInfo);
+        return weatherInfo;
+    }
+
+    @Override
+    public boolean warmUp(String pinCode, LocalDate forDate) {
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        Optional<WeatherInfo> inMemory = weatherInfoCache.get(key);
+        if (inMemory.isPresent()) {
+            return revalidateIfStale(inMemory.get());
+        }
+        revalidateIfStale(weatherLoads.execute(key, () -> loadWeatherInfo(key)));
+        return true;
+    }
+
+    boolean revalidateIfStale(WeatherInfo weatherInfo) {
+        // A row still queued for write-behind has no id to refresh in place yet. Once stored, its saved copy
+        // replaces this one in the cache and the next caller refreshes that
+        if (weatherInfo.getId() == null || !weatherFreshness.isStale(weatherInfo.getDate(), weatherInfo.getFetchedAt())) {
+            return false;
+        }
+        WeatherCacheKey key = WeatherCacheKey.of(weatherInfo);
+        if (refreshing.add(key)) {
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refresh(weatherInfo);
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the stale row is still served as is
+                refreshing.remove(key);
+            }
+        }
+        return true;
+    }
+
+    void refresh(WeatherInfo stale) {
+        WeatherCacheKey key = WeatherCacheKey.of(stale);
+        try {
+            // One instance refreshes the day, the others take its copy from the shared tier
+            WeatherInfo fresh = sharedCache.withLock(lockName(key), () -> sharedCache.get(key)
+                    .filter(shared -> isNewer(shared.fetchedAt(), stale.getFetchedAt()))
+                    .map(shared -> shared.toWeatherInfo(stale.getLocation()))
+                    .orElseGet(() -> {
+                        WeatherInfo fetched = fetchWeatherData(stale.getLocation(), stale.getPinCode(), stale.getDate());
+                        sharedCache.put(WeatherInfoResponse.from(fetched));
+                        sharedCache.invalidateOthers(key);
+                        return fetched;
+                    }));
+            WeatherInfo refreshed = weatherInfoWriter.refresh(stale.getId(), fresh);
+            eventPublisher.publishEvent(new WeatherInfoSavedEvent(refreshed));
+        } catch (RuntimeException e) {
+            // Keep serving the stale row, the next caller after max-age will try again
+            log.warn("Refresh of {} for {} failed: {}", stale.getPinCode(), stale.getDate(), e.getMessage());
+        }
+    }
+
+    WeatherInfo loadWeatherInfo(WeatherCacheKey key) {
+        return findStored(key).orElseGet(() -> fetchOrFallback(key.pinCode(), key.date()));
+    }
+
+    Optional<WeatherInfo> findStored(WeatherCacheKey key) {
+        // A load for this key may have completed between our cache check and joining the flight
+        Optional<WeatherInfo> inMemory = weatherInfoCache.get(key);
+        if (inMemory.isPresent()) {
+            return inMemory;
+        }
+
         // Check if weather data already exists in the database for this pin code and date
-        Optional<WeatherInfo> cachedWeather = weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate);
+        Optional<WeatherInfo> cachedWeather = stageMetrics.record(DB_LOOKUP,
+                () -> weatherInfoRepository.findByPinCodeAndDate(key.pinCode(), key.date()),
+                found -> found.isPresent() ? HIT : MISS);
         if (cachedWeather.isPresent()) {
-            return cachedWeather.get();
+            WeatherInfo stored = newerShared(cachedWeather.get());
+            // Details are fetched with the row, so the cached copy is safe to serve after the session is gone
+            weatherInfoCache.put(stored);
+            return Optional.of(stored);
+        }
+
+        // Another instance may have fetched the day already
+        return stageMetrics.record(SHARED_LOOKUP, () -> sharedCache.get(key), found -> found.isPresent() ? HIT : MISS)
+                .map(shared -> store(shared.toWeatherInfo(findLocation(key.pinCode())
+                        .orElseGet(() -> saveLocation(shared.location().toEntity())))));
+    }
+
+    private WeatherInfo newerShared(WeatherInfo stored) {
+        // Another instance refreshed this day after we stored it; take over its copy instead of serving ours
+        return sharedCache.get(WeatherCacheKey.of(stored))
+                .filter(shared -> isNewer(shared.fetchedAt(), stored.getFetchedAt()))
+                .map(shared -> {
+                    WeatherInfo refreshed = weatherInfoWriter.refresh(stored.getId(),
+                            shared.toWeatherInfo(stored.getLocation()));
+                    eventPublisher.publishEvent(new WeatherInfoSavedEvent(refreshed));
+                    return refreshed;
+                })
+                .orElse(stored);
+    }
+
+    private static boolean isNewer(Instant candidate, Instant current) {
+        return candidate != null && (current == null || candidate.isAfter(current));
+    }
+
+    static String lockName(WeatherCacheKey key) {
+        return "weather:" + key.pinCode() + ":" + key.date();
+    }
+
+    static String locationLockName(String pinCode) {
+        return "location:" + pinCode;
+    }
+
+    // The async mode joins these flights, so its lookups coalesce with batch, warm-up and blocking loads
+    SingleFlight<WeatherCacheKey, WeatherInfo> weatherLoads() {
+        return weatherLoads;
+    }
+
+    SingleFlight<String, PinCodeLocation> locationLoads() {
+        return locationLoads;
+    }
+
+    @Override
+    public BatchWeatherResponse getWeatherInfoBatch(Collection<String> pinCodes, LocalDate forDate) {
+        Map<String, WeatherInfo> found = new HashMap<>();
+        Set<String> remaining = takeCached(pinCodes, forDate, found);
+        if (!remaining.isEmpty()) {
+            takeStored(remaining, forDate, found);
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        if (!remaining.isEmpty()) {
+            fetchMissingConcurrently(remaining, forDate, found, errors);
+        }
+        return batchResponse(pinCodes, forDate, found, errors);
+    }
+
+    /**
+     * Moves what the L1 cache holds for {@code pinCodes} into {@code found} and returns the pin codes it could not
+     * answer, in request order.
+     */
+    Set<String> takeCached(Collection<String> pinCodes, LocalDate forDate, Map<String, WeatherInfo> found) {
+        Set<String> remaining = new LinkedHashSet<>();
+        for (String pinCode : pinCodes) {
+            weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate)).ifPresentOrElse(weatherInfo -> {
+                demandTracker.recordWarm(pinCode);
+                found.put(pinCode, weatherInfo);
+            }, () -> {
+                demandTracker.recordCold(pinCode);
+                remaining.add(pinCode);
+            });
+        }
+        return remaining;
+    }
+
+    // One IN query for everything the L1 cache could not answer; what it finds leaves remaining
+    void takeStored(Set<String> remaining, LocalDate forDate, Map<String, WeatherInfo> found) {
+        for (WeatherInfo weatherInfo : weatherInfoRepository.findByDateAndPinCodeIn(forDate, remaining)) {
+            weatherInfoCache.put(weatherInfo);
+            found.put(weatherInfo.getPinCode(), weatherInfo);
+            remaining.remove(weatherInfo.getPinCode());
+        }
+    }
+
+    BatchWeatherResponse batchResponse(Collection<String> pinCodes, LocalDate forDate,
+                                       Map<String, WeatherInfo> found, Map<String, String> errors) {
+        found.values().forEach(this::revalidateIfStale);
+
+        // Answer in the order the pin codes were asked for
+        Map<String, WeatherInfoResponse> results = new LinkedHashMap<>();
+        Map<String, String> orderedErrors = new LinkedHashMap<>();
+        for (String pinCode : pinCodes) {
+            if (found.containsKey(pinCode)) {
+                results.put(pinCode, WeatherInfoResponse.from(found.get(pinCode)));
+            } else if (errors.containsKey(pinCode)) {
+                orderedErrors.put(pinCode, errors.get(pinCode));
+            }
+        }
+        return new BatchWeatherResponse(forDate, results, orderedErrors);
+    }
+
+    @Override
+    public void forEachInRange(String pinCode, LocalDate from, LocalDate to, Consumer<WeatherInfoResponse> action) {
+        weatherRangeReader.forEach(pinCode, from, to, weatherInfo -> action.accept(WeatherInfoResponse.from(weatherInfo)));
+    }
+
+    @Override
+    public Optional<WeatherInfo> getWeatherNear(double latitude, double longitude, LocalDate forDate) {
+        return nearestPinCode(latitude, longitude).map(pinCode -> getWeatherInfo(pinCode, forDate));
+    }
+
+    Optional<String> nearestPinCode(double latitude, double longitude) {
+        double radiusKm = weatherProperties.getNearby().getSearchRadiusKm();
+        return nearbyLocationIndex.within(latitude, longitude, radiusKm, 1).stream()
+                .findFirst()
+                .map(NearbyLocationIndex.Nearby::pinCode);
+    }
+
+    private void fetchMissingConcurrently(Set<String> pinCodes, LocalDate forDate,
+                                          Map<String, WeatherInfo> found, Map<String, String> errors) {
+        Semaphore permits = new Semaphore(weatherProperties.getBatch().getMaxParallelism());
+        Map<String, Future<WeatherInfo>> fetches = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String pinCode : pinCodes) {
+                WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+                fetches.put(pinCode, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        // Shares the flight with any single request for the same key that is already running
+                        return weatherLoads.execute(key, () -> weatherInfoCache.get(key)
+                                .orElseGet(() -> fetchOrFallback(pinCode, forDate)));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Map.Entry<String, Future<WeatherInfo>> fetch : fetches.entrySet()) {
+                try {
+                    found.put(fetch.getKey(), fetch.getValue().get());
+                } catch (ExecutionException e) {
+                    errors.put(fetch.getKey(), describe(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while fetching weather data", e);
+                }
+            }
         }
+    }
 
+    // What a batch reports for a pin code that failed; some exceptions carry no message
+    static String describe(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private WeatherInfo fetchOrFallback(String pinCode, LocalDate forDate) {
+        try {
+            return fetchAndStoreWeather(pinCode, forDate);
+        } catch (OpenWeatherUnavailableException e) {
+            return lastKnown(pinCode, forDate, e);
+        }
+    }
+
+    WeatherInfo lastKnown(String pinCode, LocalDate forDate, OpenWeatherUnavailableException e) {
+        // OpenWeather is failing or we are shedding load; the last day stored for this pin code beats an error
+        Optional<WeatherInfo> lastKnown = weatherInfoRepository.findLatestByPinCode(pinCode);
+        log.warn("Serving last known weather for {} instead of {}: {}", pinCode, forDate, e.getMessage());
+        return lastKnown.orElseThrow(() -> e);
+    }
+
+    private WeatherInfo fetchAndStoreWeather(String pinCode, LocalDate forDate) {
         // Fetch or create the PinCodeLocation based on pin code
-        PinCodeLocation location = pinCodeLocationRepository.findByPinCode(pinCode)
-                .orElseGet(() -> fetchAndSaveLocation(pinCode));
+        PinCodeLocation location = locationLoads.execute(pinCode,
+                () -> findLocation(pinCode).orElseGet(() -> fetchAndSaveLocation(pinCode)));
 
-        // Fetch weather data based on location and save it to the database
-        WeatherInfo weatherInfo = fetchWeatherData(location, pinCode, forDate);
-        return weatherInfoRepository.save(weatherInfo);
+        // Fetch weather data based on location, unless a pin code next door already has it for the day,
+        // and save it, with its details, in one transaction
+        WeatherInfo weatherInfo = reuseNearby(location, pinCode, forDate)
+                .orElseGet(() -> fetchOnce(location, pinCode, forDate));
+        return store(weatherInfo);
+    }
+
+    private WeatherInfo fetchOnce(PinCodeLocation location, String pinCode, LocalDate forDate) {
+        // Across instances too: whoever holds the lock calls OpenWeather, the rest copy its answer
+        WeatherCacheKey key = new WeatherCacheKey(pinCode, forDate);
+        return sharedCache.withLock(lockName(key), () -> sharedCache.get(key)
+                .map(shared -> shared.toWeatherInfo(location))
+                .orElseGet(() -> {
+                    WeatherInfo fetched = fetchWeatherData(location, pinCode, forDate);
+                    sharedCache.put(WeatherInfoResponse.from(fetched));
+                    return fetched;
+                }));
+    }
+
+    Optional<PinCodeLocation> findLocation(String pinCode) {
+        return stageMetrics.record(LOCATION_LOOKUP, () -> pinCodeLocationRepository.findByPinCode(pinCode),
+                found -> found.isPresent() ? HIT : MISS);
+    }
+
+    WeatherInfo store(WeatherInfo weatherInfo) {
+        if (writeBehind.offer(weatherInfo)) {
+            // The caller does not wait for the insert; the writer announces the stored row once it is in
+            weatherInfoCache.put(weatherInfo);
+            return weatherInfo;
+        }
+        WeatherInfo savedWeatherInfo;
+        try {
+            savedWeatherInfo = stageMetrics.record(PERSIST, () -> weatherInfoWriter.save(weatherInfo));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored this (pinCode, date) first; the unique index rejected ours, serve theirs
+            WeatherInfo existing = weatherInfoRepository.findByPinCodeAndDate(weatherInfo.getPinCode(),
+                    weatherInfo.getDate()).orElseThrow(() -> e);
+            weatherInfoCache.put(existing);
+            return existing;
+        }
+        eventPublisher.publishEvent(new WeatherInfoSavedEvent(savedWeatherInfo));
+        return savedWeatherInfo;
+    }
+
+    Optional<WeatherInfo> reuseNearby(PinCodeLocation location, String pinCode, LocalDate forDate) {
+        WeatherProperties.Nearby nearby = weatherProperties.getNearby();
+        if (nearby.getReuseRadiusKm() <= 0) {
+            return Optional.empty();
+        }
+        List<String> candidates = new ArrayList<>();
+        for (NearbyLocationIndex.Nearby neighbour : nearbyLocationIndex.within(location.getLatitude(),
+                location.getLongitude(), nearby.getReuseRadiusKm(), nearby.getMaxCandidates() + 1)) {
+            if (!neighbour.pinCode().equals(pinCode) && candidates.size() < nearby.getMaxCandidates()) {
+                candidates.add(neighbour.pinCode());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return stageMetrics.record(NEARBY_REUSE, () -> findReusable(candidates, forDate),
+                        found -> found.isPresent() ? HIT : MISS)
+                // The copy keeps the neighbour's fetchedAt, so freshness still applies
+                .map(neighbour -> WeatherInfoWriter.copyOf(neighbour, location, pinCode));
+    }
+
+    private Optional<WeatherInfo> findReusable(List<String> candidates, LocalDate forDate) {
+        // Nearest first: memory, then one IN query for what memory did not have
+        Map<String, WeatherInfo> found = new HashMap<>();
+        List<String> notInMemory = new ArrayList<>();
+        for (String candidate : candidates) {
+            weatherInfoCache.get(new WeatherCacheKey(candidate, forDate))
+                    .ifPresentOrElse(weatherInfo -> found.put(candidate, weatherInfo), () -> notInMemory.add(candidate));
+        }
+        if (!notInMemory.isEmpty()) {
+            weatherInfoRepository.findByDateAndPinCodeIn(forDate, notInMemory)
+                    .forEach(weatherInfo -> found.put(weatherInfo.getPinCode(), weatherInfo));
+        }
+        return candidates.stream()
+                .map(found::get)
+                // A row that is due for a refresh itself is not worth copying
+                .filter(weatherInfo -> weatherInfo != null && weatherInfo.getDate().equals(forDate)
+                        && !weatherFreshness.isStale(weatherInfo.getDate(), weatherInfo.getFetchedAt()))
+                .findFirst();
     }
 
     PinCodeLocation fetchAndSaveLocation(String pinCode) {
-        String url = String.format("%s?zip=%s,IN&appid=%s", GEOCODING_URL, pinCode, OPEN_WEATHER_API_KEY);
-        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url,
-                org.springframework.http.HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<Map<String, Object>>() {
-                });
-        System.out.println("response : " + response.getBody());
-        validateApiResponse(response);
+        // Known pin codes are resolved from the in-memory index, the geocoding API is only the fallback
+        return saveLocation(locationFromIndex(pinCode).orElseGet(() -> geocodeOnce(pinCode)));
+    }
 
-        Map<String, Object> body = response.getBody();
-        double latitude = (double) body.get("lat");
-        double longitude = (double) body.get("lon");
+    private PinCodeLocation geocodeOnce(String pinCode) {
+        return sharedCache.withLock(locationLockName(pinCode), () -> sharedCache.getLocation(pinCode)
+                .map(WeatherInfoResponse.Location::toEntity)
+                .orElseGet(() -> {
+                    PinCodeLocation location = geocode(pinCode);
+                    sharedCache.putLocation(WeatherInfoResponse.Location.from(location));
+                    return location;
+                }));
+    }
 
-        PinCodeLocation pinCodeLocation = PinCodeLocation.builder()
+    Optional<PinCodeLocation> locationFromIndex(String pinCode) {
+        int slot = pinCodeGeoIndex.slot(pinCode);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(PinCodeLocation.builder()
                 .pinCode(pinCode)
-                .latitude(latitude)
-                .longitude(longitude)
-                .build();
+                .latitude(pinCodeGeoIndex.latitude(slot))
+                .longitude(pinCodeGeoIndex.longitude(slot))
+                .cityName(pinCodeGeoIndex.cityName(slot))
+                .build());
+    }
+
+    PinCodeLocation saveLocation(PinCodeLocation pinCodeLocation) {
+        String pinCode = pinCodeLocation.getPinCode();
+        try {
+            return pinCodeLocationRepository.save(pinCodeLocation);
+        } catch (DataIntegrityViolationException e) {
+            // Geocoded concurrently elsewhere, the unique pin code index kept the first one
+            return pinCodeLocationRepository.findByPinCode(pinCode).orElseThrow(() -> e);
+        }
+    }
+
+    private PinCodeLocation geocode(String pinCode) {
+        WeatherProperties.OpenWeather openWeather = weatherProperties.getOpenWeather();
+        // Values go in as URI variables so the http.client.requests uri tag stays one series per endpoint
+        String url = openWeather.getGeocodingUrl() + "?zip={zip},IN&appid={appid}";
+        Map<String, Object> uriVariables = Map.of("zip", pinCode, "appid", openWeather.getApiKey());
+        ResponseEntity<GeocodingResponse> response = stageMetrics.record(GEOCODING, () -> openWeatherGuard.call(
+                () -> restTemplate.exchange(url, HttpMethod.GET, null, GeocodingResponse.class, uriVariables)));
+        payloadLogger.log("geocoding", pinCode, response.getBody());
+        validateApiResponse(response);
 
-        return pinCodeLocationRepository.save(pinCodeLocation);
+        return OpenWeatherMapper.toLocation(pinCode, response.getBody());
     }
 
 
     public WeatherInfo fetchWeatherData(PinCodeLocation location, String pinCode, LocalDate forDate) {
-        // Build the API request URL
-        String url = UriComponentsBuilder.fromHttpUrl(OPEN_WEATHER_URL)
-                .queryParam("lat", location.getLatitude())
-                .queryParam("lon", location.getLongitude())
-                .queryParam("appid", OPEN_WEATHER_API_KEY)
-                .queryParam("units", "metric")
-                .toUriString();
+        // Build the API request URL, values are expanded from URI variables
+        WeatherProperties.OpenWeather openWeather = weatherProperties.getOpenWeather();
+        String url = openWeather.getWeatherUrl() + "?lat={lat}&lon={lon}&appid={appid}&units=metric";
+        Map<String, Object> uriVariables = Map.of("lat", location.getLatitude(), "lon", location.getLongitude(),
+                "appid", openWeather.getApiKey());
 
         try {
-            // Fetch weather data using ParameterizedTypeReference
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Object>>() {
-                    });
+            // Jackson binds only the fields we persist, straight into typed records
+            ResponseEntity<CurrentWeatherResponse> response = stageMetrics.record(WEATHER_API, () -> openWeatherGuard.call(
+                    () -> restTemplate.exchange(url, HttpMethod.GET, null, CurrentWeatherResponse.class, uriVariables)));
 
             // Validate the response (you may want to throw an exception here if the response is invalid)
-            Map<String, Object> weatherData = response.getBody();
+            CurrentWeatherResponse weatherData = response.getBody();
+            payloadLogger.log("weather", pinCode, weatherData);
             if (weatherData == null) {
                 throw new RuntimeException("Weather data response is empty");
             }
 
-            // Extract main weather information
-            Map<String, Object> coord = (Map<String, Object>) weatherData.get("coord");
-            double lat = (double) coord.get("lat");
-            double lon = (double) coord.get("lon");
-
-            Map<String, Object> sys = (Map<String, Object>) weatherData.get("sys");
-            String country = (String) sys.get("country");
-            Integer sunriseTime = (Integer) sys.get("sunrise");
-            Integer sunsetTime = (Integer) sys.get("sunset");
-
-            // Extract weather description
-            List<Map<String, Object>> weatherList = (List<Map<String, Object>>) weatherData.get("weather");
-            Map<String, Object> weatherItem = weatherList.get(0); // Assume the first item in the list
-            String mainDescription = (String) weatherItem.get("main");
-            String weatherDescription = (String) weatherItem.get("description");
-            String icon = (String) weatherItem.get("icon");
-
-            // Extract the main temperature data
-            Map<String, Object> main = (Map<String, Object>) weatherData.get("main");
-            double temperature = (double) main.get("temp");
-            double feelsLike = (double) main.get("feels_like");
-            Integer humidity = (Integer) main.get("humidity");
-            Integer pressure = (Integer) main.get("pressure");
-
-            // Extract visibility and wind data
-            Integer visibility = (Integer) weatherData.get("visibility");
-            Map<String, Object> wind = (Map<String, Object>) weatherData.get("wind");
-            double windSpeed = (double) wind.get("speed");
-
-            // Extract cloudiness data
-            Integer cloudiness = (Integer) ((Map<String, Object>) weatherData.get("clouds")).get("all");
-
-            // Update location name (optional)
-            location.setCityName((String) weatherData.get("name"));
-
-            // Create and save WeatherInfo entity
-            WeatherInfo weatherInfo = WeatherInfo.builder()
-                    .pinCode(pinCode)
-                    .date(forDate)
-                    .country(country)
-                    .sunriseTime(sunriseTime)
-                    .sunsetTime(sunsetTime)
-                    .timezoneOffset((Integer) weatherData.get("timezone"))
-                    .location(location)
-                    .build();
-
-            // Save WeatherInfo to the database
-            WeatherInfo savedWeatherInfo = weatherInfoRepository.save(weatherInfo);
-
-            // Create and save WeatherDetail entity (related to WeatherInfo)
-            WeatherDetail weatherDetail = WeatherDetail.builder()
-                    .weatherInfo(savedWeatherInfo)
-                    .main(mainDescription) // Main weather condition (e.g., "Clear")
-                    .description(weatherDescription) // Weather description (e.g., "clear sky")
-                    .icon(icon) // Weather icon (optional)
-                    .temp(temperature)
-                    .feelsLike(feelsLike)
-                    .humidity(humidity)
-                    .pressure(pressure)
-                    .cloudiness(cloudiness)
-                    .windSpeed(windSpeed)
-                    .visibility(visibility)
-                    .build();
-            // Save WeatherDetail to the database
-            WeatherDetail savedWeatherDetail = weatherDetailRepository.save(weatherDetail);
-
-            // Set the WeatherDetail to the WeatherInfo
-            savedWeatherInfo.setWeatherDetails(new ArrayList<>(List.of(savedWeatherDetail)));
-
-            // Return the saved WeatherInfo (this also includes associated WeatherDetail)
-            return savedWeatherInfo;
+            // Return the unsaved WeatherInfo, the caller persists it in one go
+            return stageMetrics.record(MAPPING, () -> toWeatherInfo(weatherData, location, pinCode, forDate));
 
         } catch (HttpClientErrorException e) {
             // Handle errors like 404 or 500 from the API
@@ -179,7 +526,23 @@ public class WeatherServiceImpl implements WeatherService {
         }
     }
 
-    void validateApiResponse(ResponseEntity<Map<String, Object>> response) {
+    WeatherInfo toWeatherInfo(CurrentWeatherResponse weatherData, PinCodeLocation location,
+                                      String pinCode, LocalDate forDate) {
+        // Update location name (optional)
+        location.setCityName(weatherData.name());
+
+        // Create WeatherInfo entity
+        WeatherInfo weatherInfo = OpenWeatherMapper.toWeatherInfo(weatherData, location, pinCode, forDate);
+        weatherInfo.setFetchedAt(weatherFreshness.now());
+
+        // Create WeatherDetail entity (related to WeatherInfo), it is persisted through the cascade on WeatherInfo
+        WeatherDetail weatherDetail = OpenWeatherMapper.toWeatherDetail(weatherData);
+        weatherDetail.setWeatherInfo(weatherInfo);
+        weatherInfo.setWeatherDetails(new ArrayList<>(List.of(weatherDetail)));
+        return weatherInfo;
+    }
+
+    void validateApiResponse(ResponseEntity<?> response) {
         if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
             throw new RuntimeException("Failed to fetch valid data from OpenWeather API");
         }
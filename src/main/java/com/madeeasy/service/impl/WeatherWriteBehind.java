@@ -0,0 +1,220 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.repository.WeatherInfoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for freshly fetched weather ({@code weather.write-behind.enabled}). A miss hands its row to
+ * {@link #offer} and returns at once; one writer thread drains the bounded queue in batches of up to
+ * {@code batch-size} rows per transaction, retrying a failed batch with backoff.
+ * <p>
+ * The queued instance is the one callers were given, so the writer persists a copy of it and announces the copy
+ * with a {@link WeatherInfoSavedEvent}; the caches then swap in the stored row, id included. When the queue is
+ * full, or the writer is stopped, {@link #offer} returns false and the caller writes synchronously as before:
+ * that is the backpressure. On shutdown the queue is flushed before the database goes away.
+ */
+@Slf4j
+@Component
+public class WeatherWriteBehind implements SmartLifecycle {
+
+    private final WeatherInfoWriter weatherInfoWriter;
+    private final WeatherInfoRepository weatherInfoRepository;
+    private final WeatherInfoCache weatherInfoCache;
+    private final WeatherResponseCache weatherResponseCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherProperties.WriteBehind settings;
+    private final BlockingQueue<WeatherInfo> queue;
+    private final Timer flushSuccess;
+    private final Timer flushError;
+    private final Counter written;
+    private final Counter duplicate;
+    private final Counter overflow;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public WeatherWriteBehind(WeatherInfoWriter weatherInfoWriter, WeatherInfoRepository weatherInfoRepository,
+                              WeatherInfoCache weatherInfoCache, WeatherResponseCache weatherResponseCache,
+                              ApplicationEventPublisher eventPublisher, WeatherProperties weatherProperties,
+                              MeterRegistry meterRegistry) {
+        this.weatherInfoWriter = weatherInfoWriter;
+        this.weatherInfoRepository = weatherInfoRepository;
+        this.weatherInfoCache = weatherInfoCache;
+        this.weatherResponseCache = weatherResponseCache;
+        this.eventPublisher = eventPublisher;
+        this.settings = weatherProperties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        meterRegistry.gauge("weather.write.queue", queue, BlockingQueue::size);
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushError = flushTimer(meterRegistry, "error");
+        this.written = meterRegistry.counter("weather.write.rows", "outcome", "written");
+        this.duplicate = meterRegistry.counter("weather.write.rows", "outcome", "duplicate");
+        this.overflow = meterRegistry.counter("weather.write.rows", "outcome", "overflow");
+        this.dropped = meterRegistry.counter("weather.write.rows", "outcome", "dropped");
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("weather.write.flush")
+                .description("One batch of queued weather rows written in a single transaction")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a new, unsaved row. False when write-behind is off or stopped, or the queue is full; the caller then
+     * stores the row itself.
+     */
+    public boolean offer(WeatherInfo weatherInfo) {
+        if (!running) {
+            return false;
+        }
+        if (queue.offer(weatherInfo)) {
+            return true;
+        }
+        overflow.increment();
+        return false;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("weather-write-behind").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // New misses write synchronously from here on; the writer empties what is already queued, then exits
+        running = false;
+        try {
+            writer.join(settings.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Write-behind stopped with {} weather rows still queued, they were not stored", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // After the web server has stopped taking requests, before the datasource is closed
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<WeatherInfo> batch = new ArrayList<>(settings.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                WeatherInfo first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Whatever piled up while the last batch was written goes out together, no waiting to fill up
+                batch.add(first);
+                queue.drainTo(batch, settings.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch failed unexpectedly", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<WeatherInfo> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                // Fresh copies every attempt, a rolled back transaction leaves ids behind on the ones it touched
+                List<WeatherInfo> saved = weatherInfoWriter.saveAll(batch.stream()
+                        .map(row -> WeatherInfoWriter.copyOf(row, row.getLocation(), row.getPinCode()))
+                        .toList());
+                flushSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                written.increment(saved.size());
+                saved.forEach(row -> eventPublisher.publishEvent(new WeatherInfoSavedEvent(row)));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                flushError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                // Another instance stored one of these days first; sort the batch out row by row
+                batch.forEach(this::flushOne);
+                return;
+            } catch (RuntimeException e) {
+                flushError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (attempt >= settings.getMaxAttempts()) {
+                    log.error("Dropping {} queued weather rows after {} attempts: {}", batch.size(), attempt,
+                            e.getMessage());
+                    batch.forEach(this::forget);
+                    dropped.increment(batch.size());
+                    return;
+                }
+                log.warn("Write-behind batch of {} failed (attempt {}), retrying: {}", batch.size(), attempt,
+                        e.getMessage());
+                Thread.sleep(settings.getRetryBackoff().multipliedBy(attempt).toMillis());
+            }
+        }
+    }
+
+    private void flushOne(WeatherInfo row) {
+        try {
+            WeatherInfo saved = weatherInfoWriter.save(WeatherInfoWriter.copyOf(row, row.getLocation(), row.getPinCode()));
+            written.increment();
+            eventPublisher.publishEvent(new WeatherInfoSavedEvent(saved));
+        } catch (DataIntegrityViolationException e) {
+            duplicate.increment();
+            // Serve the row that won, like the synchronous path does
+            weatherInfoRepository.findByPinCodeAndDate(row.getPinCode(), row.getDate())
+                    .ifPresentOrElse(existing -> eventPublisher.publishEvent(new WeatherInfoSavedEvent(existing)),
+                            () -> forget(row));
+        } catch (RuntimeException e) {
+            log.error("Dropping queued weather for {} on {}: {}", row.getPinCode(), row.getDate(), e.getMessage());
+            dropped.increment();
+            forget(row);
+        }
+    }
+
+    // Never stored: stop serving it from memory so the next request loads it again
+    private void forget(WeatherInfo row) {
+        WeatherCacheKey key = WeatherCacheKey.of(row);
+        weatherInfoCache.invalidate(key);
+        weatherResponseCache.invalidate(key);
+    }
+}
@@ -0,0 +1,94 @@
+package com.madeeasy.startup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.mapper.OpenWeatherMapper;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.service.impl.WeatherRangeReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the request path's hot code a few hundred times before the application reports itself ready
+ * ({@code weather.startup-warm-up.enabled}): OpenWeather JSON decoding, mapping to entities, API JSON encoding
+ * and the repository queries of a lookup. Runners finish before the readiness probe flips to accepting traffic,
+ * so the first real requests meet initialized beans and compiled code instead of paying for them.
+ * <p>
+ * Nothing is stored or cached: the JSON is a canned payload and the queries ask for a pin code that does not exist.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final String PIN_CODE = "000000";   // Not a valid Indian pin code, no row can match it
+
+    private static final String WEATHER_JSON = """
+            {"coord":{"lon":87.7745,"lat":22.4586},
+             "weather":[{"id":800,"main":"Clear","description":"clear sky","icon":"01d"}],
+             "main":{"temp":28.2,"feels_like":29.4,"pressure":1015,"humidity":57},
+             "visibility":10000,"wind":{"speed":3.31,"deg":12},"clouds":{"all":0},
+             "sys":{"country":"IN","sunrise":1731111472,"sunset":1731151661},
+             "timezone":19800,"name":"Tamluk","cod":200}
+            """;
+
+    private static final String GEOCODING_JSON = """
+            {"zip":"000000","name":"Tamluk","lat":22.4586,"lon":87.7745,"country":"IN"}
+            """;
+
+    private final ObjectMapper objectMapper;
+    private final WeatherInfoRepository weatherInfoRepository;
+    private final PinCodeLocationRepository pinCodeLocationRepository;
+    private final WeatherRangeReader weatherRangeReader;
+    private final WeatherProperties weatherProperties;
+    private final Clock clock;
+
+    @Override
+    public void run(ApplicationArguments args) throws JsonProcessingException {
+        WeatherProperties.StartupWarmUp settings = weatherProperties.getStartupWarmUp();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDate date = LocalDate.now(clock);
+        for (int i = 0; i < settings.getIterations(); i++) {
+            mapping(date);
+            // The queries of a miss, of a batch, of a range request and of the last known fallback
+            weatherInfoRepository.findByPinCodeAndDate(PIN_CODE, date);
+            weatherInfoRepository.findByDateAndPinCodeIn(date, List.of(PIN_CODE));
+            pinCodeLocationRepository.findByPinCode(PIN_CODE);
+            weatherRangeReader.forEach(PIN_CODE, date, date, weatherInfo -> {
+            });
+            weatherInfoRepository.findLatestByPinCode(PIN_CODE);
+        }
+        log.info("Startup warm-up ran {} iterations in {} ms", settings.getIterations(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void mapping(LocalDate date) throws JsonProcessingException {
+        GeocodingResponse geocoding = objectMapper.readValue(GEOCODING_JSON, GeocodingResponse.class);
+        CurrentWeatherResponse weather = objectMapper.readValue(WEATHER_JSON, CurrentWeatherResponse.class);
+        PinCodeLocation location = OpenWeatherMapper.toLocation(PIN_CODE, geocoding);
+        WeatherInfo weatherInfo = OpenWeatherMapper.toWeatherInfo(weather, location, PIN_CODE, date);
+        WeatherDetail weatherDetail = OpenWeatherMapper.toWeatherDetail(weather);
+        weatherDetail.setWeatherInfo(weatherInfo);
+        weatherInfo.setWeatherDetails(new ArrayList<>(List.of(weatherDetail)));
+        objectMapper.writeValueAsBytes(WeatherInfoResponse.from(weatherInfo));
+    }
+}
@@ -0,0 +1,48 @@
+-- Schema for the persistent profile, matching the JPA entities (ddl-auto: validate checks it on startup).
+-- Sequences step by 50 to match the allocationSize Hibernate hands out ids in.
+
+create sequence pin_code_location_seq start with 1 increment by 50;
+create sequence weather_info_seq start with 1 increment by 50;
+create sequence weather_detail_seq start with 1 increment by 50;
+
+create table pin_code_location (
+    id        bigint       not null,
+    pin_code  varchar(255),
+    latitude  float(53)    not null,
+    longitude float(53)    not null,
+    city_name varchar(255),
+    primary key (id),
+    constraint uk_pin_code_location_pin_code unique (pin_code)
+);
+
+create table weather_info (
+    id              bigint       not null,
+    pin_code        varchar(255),
+    date            date,
+    country         varchar(255),
+    timezone_offset integer,
+    sunrise_time    integer,
+    sunset_time     integer,
+    fetched_at      timestamp(6) with time zone,
+    location_id     bigint,
+    primary key (id),
+    constraint uk_weather_info_pin_code_date unique (pin_code, date),
+    constraint fk_weather_info_location foreign key (location_id) references pin_code_location (id)
+);
+
+create table weather_detail (
+    id              bigint       not null,
+    main            varchar(255),
+    description     varchar(255),
+    icon            varchar(255),
+    temp            float(53),
+    feels_like      float(53),
+    humidity        integer,
+    pressure        integer,
+    cloudiness      integer,
+    wind_speed      float(53),
+    visibility      integer,
+    weather_info_id bigint,
+    primary key (id),
+    constraint fk_weather_detail_weather_info foreign key (weather_info_id) references weather_info (id)
+);
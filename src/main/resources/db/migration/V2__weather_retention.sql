@@ -0,0 +1,15 @@
+-- Retention job: finds expired rows by date, and optionally keeps one summary row per purged (pin_code, date)
+
+create index idx_weather_info_date on weather_info (date);
+
+create table weather_daily_summary (
+    pin_code   varchar(255) not null,
+    date       date         not null,
+    main       varchar(255),
+    temp       float(53),
+    feels_like float(53),
+    humidity   integer,
+    pressure   integer,
+    wind_speed float(53),
+    primary key (pin_code, date)
+);
@@ -0,0 +1,134 @@
+package com.madeeasy;
+
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.service.WeatherService;
+import com.madeeasy.service.impl.AsyncWeatherServiceImpl;
+import com.madeeasy.service.impl.WeatherServiceImpl;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The application with {@code weather.execution.mode=async}: lookups go through the CompletableFuture pipeline
+ * against the local OpenWeather stub and behave like the blocking mode.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:async_mode;DB_CLOSE_DELAY=-1", "weather.prewarm.cron=-",
+                "weather.execution.mode=async"})
+class AsyncExecutionModeTest {
+
+    private static final OpenWeatherStubServer STUB = startStub();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private WeatherServiceImpl blockingService;
+
+    @DynamicPropertySource
+    static void openWeather(DynamicPropertyRegistry registry) {
+        registry.add("weather.open-weather.weather-url", STUB::weatherUrl);
+        registry.add("weather.open-weather.geocoding-url", STUB::geocodingUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void testConcurrentMissesShareOneUpstreamCall() throws Exception {
+        assertInstanceOf(AsyncWeatherServiceImpl.class, weatherService);
+        int weatherRequests = STUB.weatherRequests();
+        STUB.latency(Duration.ofMillis(200));
+        List<Future<ResponseEntity<String>>> calls = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                calls.add(clients.submit(() -> restTemplate.getForEntity(
+                        "/api/weather?pinCode=721151&forDate=2024-11-09", String.class)));
+            }
+        } finally {
+            STUB.latency(Duration.ZERO);
+        }
+
+        String body = calls.get(0).get().getBody();
+        for (Future<ResponseEntity<String>> call : calls) {
+            assertEquals(HttpStatus.OK, call.get().getStatusCode());
+            assertEquals(body, call.get().getBody());
+        }
+        assertTrue(body.contains("\"pinCode\":\"721151\""));
+        assertEquals(1, STUB.weatherRequests() - weatherRequests);
+    }
+
+    @Test
+    void testAsyncLookupsShareTheFlightWithBatchAndWarmUp() throws Exception {
+        LocalDate date = LocalDate.of(2024, 11, 10);
+        int weatherRequests = STUB.weatherRequests();
+        STUB.latency(Duration.ofMillis(200));
+        List<Future<?>> calls = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 4; i++) {
+                calls.add(clients.submit(() -> weatherService.getWeatherInfo("721151", date)));
+                calls.add(clients.submit(() -> weatherService.getWeatherInfoBatch(List.of("721151"), date)));
+                calls.add(clients.submit(() -> blockingService.warmUp("721151", date)));
+            }
+        } finally {
+            STUB.latency(Duration.ZERO);
+        }
+
+        for (Future<?> call : calls) {
+            if (call.get() instanceof BatchWeatherResponse batch) {
+                assertEquals(List.of("721151"), List.copyOf(batch.results().keySet()));
+            }
+        }
+        assertEquals(1, STUB.weatherRequests() - weatherRequests);
+    }
+
+    @Test
+    void testUpstreamFailureFallsBackOrIsUnavailable() {
+        restTemplate.getForEntity("/api/weather?pinCode=700001&forDate=2024-11-08", String.class);
+        STUB.status(503);
+        try {
+            ResponseEntity<String> lastKnown = restTemplate.getForEntity(
+                    "/api/weather?pinCode=700001&forDate=2024-11-09", String.class);
+            ResponseEntity<String> unknown = restTemplate.getForEntity(
+                    "/api/weather?pinCode=110001&forDate=2024-11-09", String.class);
+
+            assertEquals(HttpStatus.OK, lastKnown.getStatusCode());
+            assertTrue(lastKnown.getBody().contains("\"date\":\"2024-11-08\""));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unknown.getStatusCode());
+        } finally {
+            STUB.status(200);
+        }
+    }
+
+    private static OpenWeatherStubServer startStub() {
+        try {
+            return new OpenWeatherStubServer().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.madeeasy;
+
+import com.madeeasy.repository.WeatherInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the fast-start profile: with lazy initialization the scheduled jobs are still registered, and the warm-up
+ * has run, without storing anything, by the time the application reports ready.
+ */
+class FastStartProfileTest {
+
+    @Test
+    void testLazyContextWarmsUpBeforeReady() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WeatherInfoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=fast-start",
+                        "--spring.datasource.url=jdbc:h2:mem:fast_start;DB_CLOSE_DELAY=-1",
+                        "--weather.startup-warm-up.iterations=20",
+                        "--spring.jpa.show-sql=false")) {
+            assertEquals(ReadinessState.ACCEPTING_TRAFFIC,
+                    context.getBean(ApplicationAvailability.class).getReadinessState());
+            // Prewarm and retention, and the listener that subscribes when it is created
+            assertEquals(2, context.getBean(ScheduledTaskHolder.class).getScheduledTasks().size());
+            assertTrue(context.getBeanFactory().containsSingleton("sharedCacheInvalidationListener"));
+            assertEquals(0, context.getBean(WeatherInfoRepository.class).count());
+        }
+    }
+}
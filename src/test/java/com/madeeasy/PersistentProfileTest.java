@@ -0,0 +1,59 @@
+package com.madeeasy;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the persistent profile twice on the same data directory: Flyway builds the schema the entities validate
+ * against, and what the first instance stored is there for the second.
+ */
+class PersistentProfileTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testWeatherSurvivesRestart() {
+        try (ConfigurableApplicationContext first = start()) {
+            PinCodeLocation location = first.getBean(PinCodeLocationRepository.class).save(PinCodeLocation.builder()
+                    .pinCode("721151").latitude(22.4586).longitude(87.7745).cityName("Tamluk").build());
+            WeatherInfo weatherInfo = WeatherInfo.builder().pinCode("721151").date(DATE).location(location)
+                    .weatherDetails(new ArrayList<>()).build();
+            weatherInfo.getWeatherDetails().add(WeatherDetail.builder().main("Clear").weatherInfo(weatherInfo).build());
+            first.getBean(WeatherInfoRepository.class).save(weatherInfo);
+        }
+
+        try (ConfigurableApplicationContext second = start()) {
+            WeatherInfo found = second.getBean(WeatherInfoRepository.class).findByPinCodeAndDate("721151", DATE)
+                    .orElseThrow();
+            assertEquals("Tamluk", found.getLocation().getCityName());
+            assertEquals(List.of("Clear"), found.getWeatherDetails().stream().map(WeatherDetail::getMain).toList());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(WeatherInfoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=persistent",
+                        "--weather.data-dir=" + dataDir,
+                        "--weather.prewarm.cron=-",
+                        "--spring.jpa.show-sql=false");
+    }
+}
@@ -0,0 +1,165 @@
+package com.madeeasy;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.service.WeatherService;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three application contexts, each with its own in-memory database, joined through the local shared cache tier
+ * like replicas behind a load balancer: a day is fetched from OpenWeather once for all of them, and a refresh on
+ * one replaces what the others hold in memory. The nodes share a clock the test moves forward to age today's rows. The last node runs the async execution mode, whose lookups take the
+ * same locks.
+ */
+class SharedCacheClusterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    // Midday, so moving it an hour on never crosses into the next day
+    private static final MovableClock CLOCK = new MovableClock(ZONE, LocalDate.now(ZONE).atTime(12, 0).atZone(ZONE).toInstant());
+
+    private static OpenWeatherStubServer stub;
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startCluster() throws IOException {
+        stub = new OpenWeatherStubServer().start();
+        for (int node = 0; node < 3; node++) {
+            nodes.add(new SpringApplicationBuilder(WeatherInfoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .initializers(context -> ((GenericApplicationContext) context).registerBean("clusterClock",
+                            Clock.class, () -> CLOCK, definition -> definition.setPrimary(true)))
+                    .run("--spring.datasource.url=jdbc:h2:mem:shared_cache_node_" + node + ";DB_CLOSE_DELAY=-1",
+                            "--weather.shared-cache.type=local",
+                            "--weather.shared-cache.cluster=shared-cache-test",
+                            "--weather.open-weather.weather-url=" + stub.weatherUrl(),
+                            "--weather.open-weather.geocoding-url=" + stub.geocodingUrl(),
+                            "--weather.prewarm.cron=-",
+                            "--weather.execution.mode=" + (node == 2 ? "async" : "blocking"),
+                            "--spring.jpa.show-sql=false"));
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        stub.close();
+    }
+
+    @Test
+    void testConcurrentMissesOnAllNodesFetchOnce() throws Exception {
+        int weatherRequests = stub.weatherRequests();
+        int geocodingRequests = stub.geocodingRequests();
+        stub.latency(Duration.ofMillis(200));
+        List<Future<WeatherInfo>> calls = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 12; i++) {
+                WeatherService node = nodes.get(i % nodes.size()).getBean(WeatherService.class);
+                calls.add(clients.submit(() -> node.getWeatherInfo("721151", DATE)));
+            }
+        } finally {
+            stub.latency(Duration.ZERO);
+        }
+
+        for (Future<WeatherInfo> call : calls) {
+            assertEquals("721151", call.get().getPinCode());
+        }
+        assertEquals(1, stub.weatherRequests() - weatherRequests);
+        assertEquals(1, stub.geocodingRequests() - geocodingRequests);
+        // Every node keeps its own copy, so range queries and restarts do not depend on the shared tier
+        for (ConfigurableApplicationContext node : nodes) {
+            assertTrue(node.getBean(WeatherInfoRepository.class).findByPinCodeAndDate("721151", DATE).isPresent());
+        }
+    }
+
+    @Test
+    void testRefreshOnOneNodeReplacesCopiesOnTheOthers() throws InterruptedException {
+        LocalDate today = LocalDate.now(CLOCK);
+        WeatherCacheKey key = new WeatherCacheKey("700001", today);
+        ConfigurableApplicationContext first = nodes.get(0);
+        ConfigurableApplicationContext second = nodes.get(1);
+        WeatherInfo before = first.getBean(WeatherService.class).getWeatherInfo("700001", today);
+        second.getBean(WeatherService.class).getWeatherInfo("700001", today);
+        assertTrue(second.getBean(WeatherInfoCache.class).get(key).isPresent());
+        int weatherRequests = stub.weatherRequests();
+
+        // Past max-age: the first node serves its row once more and refreshes it in the background
+        CLOCK.advance(Duration.ofHours(1));
+        assertEquals(before.getFetchedAt(), first.getBean(WeatherService.class).getWeatherInfo("700001", today).getFetchedAt());
+        WeatherInfoCache firstCache = first.getBean(WeatherInfoCache.class);
+        WeatherInfoCache secondCache = second.getBean(WeatherInfoCache.class);
+        awaitUntil(() -> secondCache.get(key).isEmpty() && firstCache.get(key)
+                .filter(refreshed -> CLOCK.instant().equals(refreshed.getFetchedAt())).isPresent());
+
+        WeatherInfo after = second.getBean(WeatherService.class).getWeatherInfo("700001", today);
+        assertEquals(CLOCK.instant(), after.getFetchedAt());
+        assertEquals(CLOCK.instant(), second.getBean(WeatherInfoRepository.class).findByPinCodeAndDate("700001", today)
+                .orElseThrow().getFetchedAt());
+        // Only the refreshing node went upstream
+        assertEquals(1, stub.weatherRequests() - weatherRequests);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the background refresh");
+            Thread.sleep(20);
+        }
+    }
+
+    // One clock for every node, so the test can age today's rows on all of them at once
+    private static final class MovableClock extends Clock {
+
+        private final ZoneId zone;
+        private volatile Instant now;
+
+        MovableClock(ZoneId zone, Instant now) {
+            this.zone = zone;
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MovableClock(zone, now);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
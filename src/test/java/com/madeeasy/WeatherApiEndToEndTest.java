@@ -0,0 +1,111 @@
+package com.madeeasy;
+
+import com.madeeasy.controller.WeatherController;
+import com.madeeasy.support.OpenWeatherStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Whole application on a random port, with OpenWeather pointed at the local stub through the
+ * {@code weather.open-weather.*} properties. Metrics export is switched back on to check the Prometheus scrape.
+ */
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:end_to_end;DB_CLOSE_DELAY=-1", "weather.prewarm.cron=-"})
+class WeatherApiEndToEndTest {
+
+    private static final OpenWeatherStubServer STUB = startStub();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void openWeather(DynamicPropertyRegistry registry) {
+        registry.add("weather.open-weather.weather-url", STUB::weatherUrl);
+        registry.add("weather.open-weather.geocoding-url", STUB::geocodingUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void testWeatherIsFetchedFromConfiguredUpstreamOnceAndThenServedLocally() {
+        int geocodingRequests = STUB.geocodingRequests();
+        int weatherRequests = STUB.weatherRequests();
+        ResponseEntity<String> first = restTemplate.getForEntity(
+                "/api/weather?pinCode=721151&forDate=2024-11-09", String.class);
+        ResponseEntity<String> second = restTemplate.getForEntity(
+                "/api/weather?pinCode=721151&forDate=2024-11-09", String.class);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertTrue(first.getBody().contains("\"pinCode\":\"721151\""));
+        assertEquals(first.getBody(), second.getBody());
+        assertTrue(STUB.geocodingRequests() - geocodingRequests <= 1);
+        assertEquals(1, STUB.weatherRequests() - weatherRequests);
+    }
+
+    @Test
+    void testLastKnownDayIsMarkedAndNotCachedWhileUpstreamFails() {
+        ResponseEntity<String> stored = restTemplate.getForEntity(
+                "/api/weather?pinCode=700001&forDate=2024-11-20", String.class);
+        assertEquals(HttpStatus.OK, stored.getStatusCode());
+        assertNull(stored.getHeaders().getFirst(WeatherController.FALLBACK_HEADER));
+
+        STUB.status(500);
+        try {
+            int weatherRequests = STUB.weatherRequests();
+            for (int i = 0; i < 2; i++) {
+                ResponseEntity<String> fallback = restTemplate.getForEntity(
+                        "/api/weather?pinCode=700001&forDate=2024-11-21", String.class);
+
+                assertEquals(HttpStatus.OK, fallback.getStatusCode());
+                assertEquals("last-known", fallback.getHeaders().getFirst(WeatherController.FALLBACK_HEADER));
+                assertNull(fallback.getHeaders().getETag());
+                assertTrue(fallback.getBody().contains("\"date\":\"2024-11-20\""));
+            }
+            // Neither answer was stored, both went to OpenWeather
+            assertEquals(2, STUB.weatherRequests() - weatherRequests);
+        } finally {
+            STUB.status(200);
+        }
+
+        ResponseEntity<String> recovered = restTemplate.getForEntity(
+                "/api/weather?pinCode=700001&forDate=2024-11-21", String.class);
+        assertNull(recovered.getHeaders().getFirst(WeatherController.FALLBACK_HEADER));
+        assertNotNull(recovered.getHeaders().getETag());
+        assertTrue(recovered.getBody().contains("\"date\":\"2024-11-21\""));
+    }
+
+    @Test
+    void testStageTimersAreScrapedAsPrometheusHistograms() {
+        restTemplate.getForEntity("/api/weather?pinCode=721151&forDate=2024-11-10", String.class);
+
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertTrue(scrape.contains("weather_stage_seconds_bucket{exception=\"none\",outcome=\"success\",stage=\"weather-api\""));
+        assertTrue(scrape.contains("weather_stage_seconds_count{exception=\"none\",outcome=\"miss\",stage=\"db-lookup\"}"));
+    }
+
+    private static OpenWeatherStubServer startStub() {
+        try {
+            return new OpenWeatherStubServer().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.madeeasy.controller;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherFreshness;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.config.CborConfig;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
+import com.madeeasy.service.impl.AsyncWeatherServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AsyncWeatherController.class, properties = "weather.execution.mode=async")
+@Import({WeatherResponses.class, WeatherResponseCache.class, WeatherFreshness.class, PinCodeDemandTracker.class,
+        CborConfig.class, WeatherControllerTest.Config.class})
+class AsyncWeatherControllerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherResponseCache weatherResponseCache;
+
+    @MockBean
+    private AsyncWeatherServiceImpl weatherService;
+
+    @AfterEach
+    void tearDown() {
+        weatherResponseCache.invalidate(new WeatherCacheKey("721151", DATE));
+    }
+
+    @Test
+    void testMissIsAnsweredWhenTheLookupCompletesAndThenServedFromStoredBytes() throws Exception {
+        CompletableFuture<WeatherInfo> lookup = new CompletableFuture<>();
+        when(weatherService.getWeatherInfoAsync("721151", DATE)).thenReturn(lookup);
+
+        MvcResult started = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The request has let go of its thread; nothing is written until the lookup completes
+        assertEquals("", started.getResponse().getContentAsString());
+        lookup.complete(weatherInfo(DATE));
+        String etag = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")))
+                .andExpect(jsonPath("$.pinCode").value("721151"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult stored = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(stored))
+                .andExpect(status().isNotModified());
+
+        verify(weatherService, times(1)).getWeatherInfoAsync("721151", DATE);
+    }
+
+    @Test
+    void testLastKnownDayIsMarkedAndNotStored() throws Exception {
+        when(weatherService.getWeatherInfoAsync("721151", DATE))
+                .thenReturn(CompletableFuture.completedFuture(weatherInfo(DATE.minusDays(1))));
+
+        for (int i = 0; i < 2; i++) {
+            MvcResult started = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(WeatherController.FALLBACK_HEADER, "last-known"))
+                    .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                    .andExpect(jsonPath("$.date").value("2024-11-08"));
+        }
+
+        verify(weatherService, times(2)).getWeatherInfoAsync("721151", DATE);
+    }
+
+    @Test
+    void testFailedLookupIsUnavailable() throws Exception {
+        when(weatherService.getWeatherInfoAsync("721151", DATE)).thenReturn(CompletableFuture.failedFuture(
+                new OpenWeatherUnavailableException("OpenWeather is unavailable", null)));
+
+        MvcResult started = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testBatchAndNearAreAnsweredWhenTheirLookupsComplete() throws Exception {
+        when(weatherService.getWeatherInfoBatchAsync(List.of("721151"), DATE)).thenReturn(CompletableFuture.completedFuture(
+                new BatchWeatherResponse(DATE, Map.of("721151", WeatherInfoResponse.from(weatherInfo(DATE))), Map.of())));
+        when(weatherService.getWeatherNearAsync(22.46, 87.77, DATE))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(weatherInfo(DATE))));
+        when(weatherService.getWeatherNearAsync(10, 10, DATE))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        MvcResult batch = mockMvc.perform(post("/api/weather/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pinCodes\":[\"721151\"],\"forDate\":\"2024-11-09\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.721151.location.cityName").value("Tamluk"));
+
+        MvcResult near = mockMvc.perform(get("/api/weather/near").param("lat", "22.46").param("lon", "87.77")
+                        .param("forDate", "2024-11-09"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(near))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pinCode").value("721151"));
+
+        MvcResult nowhere = mockMvc.perform(get("/api/weather/near").param("lat", "10").param("lon", "10")
+                        .param("forDate", "2024-11-09"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(nowhere))
+                .andExpect(status().isNotFound());
+
+        // Rejected before any lookup starts
+        mockMvc.perform(post("/api/weather/batch").contentType(MediaType.APPLICATION_JSON).content("{\"pinCodes\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static WeatherInfo weatherInfo(LocalDate date) {
+        PinCodeLocation location = PinCodeLocation.builder()
+                .id(1L).pinCode("721151").latitude(22.4586).longitude(87.7745).cityName("Tamluk").build();
+        WeatherInfo weatherInfo = WeatherInfo.builder()
+                .id(1L).pinCode("721151").date(date).country("IN").location(location).build();
+        weatherInfo.setWeatherDetails(List.of(WeatherDetail.builder().id(1L).main("Clear").temp(28.2)
+                .weatherInfo(weatherInfo).build()));
+        return weatherInfo;
+    }
+}
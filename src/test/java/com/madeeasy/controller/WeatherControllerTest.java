@@ -0,0 +1,276 @@
+package com.madeeasy.controller;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherFreshness;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.config.CborConfig;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
+import com.madeeasy.service.WeatherService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({WeatherController.class, WeatherRangeController.class})
+@Import({WeatherResponses.class, WeatherResponseCache.class, WeatherFreshness.class, PinCodeDemandTracker.class,
+        CborConfig.class, WeatherControllerTest.Config.class})
+class WeatherControllerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        WeatherProperties weatherProperties() {
+            return new WeatherProperties();
+        }
+
+        @Bean
+        Clock clock() {
+            return Clock.systemUTC();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PinCodeDemandTracker demandTracker;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Autowired
+    private WeatherResponseCache weatherResponseCache;
+
+    @MockBean
+    private WeatherService weatherService;
+
+    // The context, and with it the stored bodies, is shared between the tests
+    @AfterEach
+    void tearDown() {
+        weatherResponseCache.invalidate(new WeatherCacheKey("721151", DATE));
+    }
+
+    @Test
+    void testRepeatedRequestIsServedFromStoredBytes() throws Exception {
+        when(weatherService.getWeatherInfo("721151", DATE)).thenReturn(weatherInfo());
+
+        String etag = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")))
+                .andExpect(jsonPath("$.pinCode").value("721151"))
+                .andExpect(jsonPath("$.location.cityName").value("Tamluk"))
+                .andExpect(jsonPath("$.weatherDetails[0].main").value("Clear"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(weatherService, times(1)).getWeatherInfo("721151", DATE);
+        // The byte cache hit still counts as demand for the prewarmer
+        assertEquals(List.of("721151"), demandTracker.topPinCodes(10));
+    }
+
+    @Test
+    void testMatchingIfNoneMatchReturnsNotModified() throws Exception {
+        when(weatherService.getWeatherInfo("721151", DATE)).thenReturn(weatherInfo());
+
+        String etag = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testRangeIsStreamedAsOneJsonLinePerDay() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<WeatherInfoResponse> action = invocation.getArgument(3);
+            action.accept(WeatherInfoResponse.from(weatherInfo()));
+            action.accept(WeatherInfoResponse.from(weatherInfo()));
+            return null;
+        }).when(weatherService).forEachInRange(eq("721151"), eq(DATE), eq(DATE.plusDays(1)), any());
+
+        MvcResult started = mockMvc.perform(get("/api/weather/range").param("pinCode", "721151")
+                        .param("from", "2024-11-09").param("to", "2024-11-10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("\n"));
+        for (String line : lines) {
+            assertTrue(line.startsWith("{") && line.contains("\"pinCode\":\"721151\""));
+        }
+    }
+
+    @Test
+    void testRangeOutOfOrderOrTooLongIsRejected() throws Exception {
+        mockMvc.perform(get("/api/weather/range").param("pinCode", "721151")
+                        .param("from", "2024-11-10").param("to", "2024-11-09"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/weather/range").param("pinCode", "721151")
+                        .param("from", "2023-01-01").param("to", "2024-11-09"))
+                .andExpect(status().isBadRequest());
+
+        verify(weatherService, never()).forEachInRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void testNearAnswersForClosestKnownPinCodeOrNotFound() throws Exception {
+        when(weatherService.getWeatherNear(22.46, 87.77, DATE)).thenReturn(Optional.of(weatherInfo()));
+
+        mockMvc.perform(get("/api/weather/near").param("lat", "22.46").param("lon", "87.77").param("forDate", "2024-11-09"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pinCode").value("721151"));
+        mockMvc.perform(get("/api/weather/near").param("lat", "10").param("lon", "10").param("forDate", "2024-11-09"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/weather/near").param("lat", "91").param("lon", "10").param("forDate", "2024-11-09"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCborIsServedWhenAskedForWithItsOwnETag() throws Exception {
+        when(weatherService.getWeatherInfo("721151", DATE)).thenReturn(weatherInfo());
+
+        String jsonEtag = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult cbor = mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        WeatherInfoResponse decoded = cborMapper().readValue(cbor.getResponse().getContentAsByteArray(),
+                WeatherInfoResponse.class);
+        assertEquals(WeatherInfoResponse.from(weatherInfo()), decoded);
+        String cborEtag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonEtag, cborEtag);
+        // Fixed-order arrays: no field names on the wire
+        assertTrue(cbor.getResponse().getContentAsByteArray().length < jsonBytes().length / 2);
+
+        mockMvc.perform(get("/api/weather").param("pinCode", "721151").param("forDate", "2024-11-09")
+                        .header(HttpHeaders.ACCEPT, "application/cbor")
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified());
+        verify(weatherService, times(2)).getWeatherInfo("721151", DATE);
+    }
+
+    @Test
+    void testBatchAndRangeAnswerInCbor() throws Exception {
+        when(weatherService.getWeatherInfoBatch(List.of("721151"), DATE)).thenReturn(new BatchWeatherResponse(DATE,
+                Map.of("721151", WeatherInfoResponse.from(weatherInfo())), Map.of()));
+        doAnswer(invocation -> {
+            Consumer<WeatherInfoResponse> action = invocation.getArgument(3);
+            action.accept(WeatherInfoResponse.from(weatherInfo()));
+            action.accept(WeatherInfoResponse.from(weatherInfo()));
+            return null;
+        }).when(weatherService).forEachInRange(eq("721151"), eq(DATE), eq(DATE.plusDays(1)), any());
+
+        byte[] batch = mockMvc.perform(post("/api/weather/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pinCodes\":[\"721151\"],\"forDate\":\"2024-11-09\"}")
+                        .header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Tamluk", cborMapper().readValue(batch, BatchWeatherResponse.class)
+                .results().get("721151").location().cityName());
+
+        MvcResult started = mockMvc.perform(get("/api/weather/range").param("pinCode", "721151")
+                        .param("from", "2024-11-09").param("to", "2024-11-10")
+                        .header(HttpHeaders.ACCEPT, "application/cbor-seq"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] range = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor-seq"))
+                .andReturn().getResponse().getContentAsByteArray();
+        // Item by item: readValues would take the first day's array for a wrapper around the sequence
+        List<WeatherInfoResponse> days = new ArrayList<>();
+        try (JsonParser parser = cborMapper().createParser(range)) {
+            while (parser.nextToken() != null) {
+                days.add(cborMapper().readValue(parser, WeatherInfoResponse.class));
+            }
+        }
+        assertEquals(List.of(WeatherInfoResponse.from(weatherInfo()), WeatherInfoResponse.from(weatherInfo())), days);
+    }
+
+    private ObjectMapper cborMapper() {
+        return cborHttpMessageConverter.getObjectMapper();
+    }
+
+    private byte[] jsonBytes() throws Exception {
+        return new ObjectMapper().findAndRegisterModules().writeValueAsBytes(WeatherInfoResponse.from(weatherInfo()));
+    }
+
+    private static WeatherInfo weatherInfo() {
+        PinCodeLocation location = PinCodeLocation.builder()
+                .id(1L).pinCode("721151").latitude(22.4586).longitude(87.7745).cityName("Tamluk").build();
+        WeatherInfo weatherInfo = WeatherInfo.builder()
+                .id(1L).pinCode("721151").date(DATE).country("IN").location(location).build();
+        weatherInfo.setWeatherDetails(List.of(WeatherDetail.builder().id(1L).main("Clear").temp(28.2)
+                .weatherInfo(weatherInfo).build()));
+        return weatherInfo;
+    }
+}
@@ -0,0 +1,62 @@
+package com.madeeasy.geo;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NearbyLocationIndexTest {
+
+    private final PinCodeLocationRepository pinCodeLocationRepository = mock(PinCodeLocationRepository.class);
+    private final NearbyLocationIndex index = new NearbyLocationIndex(pinCodeLocationRepository);
+
+    @Test
+    void testWithinRadiusNearestFirst() {
+        when(pinCodeLocationRepository.findAll()).thenReturn(List.of(
+                location("700001", 22.5726, 88.3639),   // Kolkata
+                location("700012", 22.5800, 88.3700),   // ~1 km away, in the next cell over
+                location("711101", 22.5958, 88.2636),   // Howrah, ~11 km
+                location("721151", 22.4586, 87.7745))); // Tamluk, ~60 km
+        index.load();
+
+        List<NearbyLocationIndex.Nearby> nearby = index.within(22.5726, 88.3639, 15, 10);
+
+        assertEquals(List.of("700001", "700012", "711101"), nearby.stream().map(NearbyLocationIndex.Nearby::pinCode).toList());
+        assertEquals(0, nearby.get(0).distanceKm(), 1e-9);
+        assertEquals(1.1, nearby.get(1).distanceKm(), 0.1);
+        assertEquals(List.of("700001", "700012"),
+                index.within(22.5726, 88.3639, 15, 2).stream().map(NearbyLocationIndex.Nearby::pinCode).toList());
+        assertEquals(List.of(), index.within(22.5726, 88.3639, 0, 10));
+    }
+
+    @Test
+    void testSearchCrossesTheAntimeridian() {
+        index.add(location("000001", -17.0, 179.99));
+        index.add(location("000002", -17.0, -179.99));
+
+        assertEquals(List.of("000001", "000002"), index.within(-17.0, 179.995, 5, 10).stream()
+                .map(NearbyLocationIndex.Nearby::pinCode).toList());
+    }
+
+    @Test
+    void testSavedWeatherAddsItsLocationOnce() {
+        PinCodeLocation location = location("721151", 22.4586, 87.7745);
+
+        index.onWeatherInfoSaved(new WeatherInfoSavedEvent(WeatherInfo.builder().location(location).build()));
+        index.add(location("721151", 10, 10));
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.within(22.46, 87.77, 2, 10).size());
+        assertEquals(List.of(), index.within(10, 10, 2, 10));
+    }
+
+    private static PinCodeLocation location(String pinCode, double latitude, double longitude) {
+        return PinCodeLocation.builder().pinCode(pinCode).latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.madeeasy.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinCodeGeoIndexTest {
+
+    @Test
+    void testLookupBySlot() throws IOException {
+        PinCodeGeoIndex index = load();
+
+        int slot = index.slot("721151");
+        assertTrue(slot >= 0);
+        assertEquals(22.4586, index.latitude(slot));
+        assertEquals(87.7745, index.longitude(slot));
+        assertEquals("Tamluk", index.cityName(slot));
+
+        // A missing city column is allowed, the name is then left to the weather response
+        assertNull(index.cityName(index.slot("400001")));
+    }
+
+    @Test
+    void testDuplicatePinCodeKeepsLastRow() throws IOException {
+        PinCodeGeoIndex index = load();
+
+        assertEquals(5, index.size());
+        assertEquals(22.5697, index.latitude(index.slot("700001")));
+    }
+
+    @Test
+    void testUnknownOrMalformedPinCodeHasNoSlot() throws IOException {
+        PinCodeGeoIndex index = load();
+
+        assertTrue(index.slot("999999") < 0);
+        assertTrue(index.slot("72115") < 0);
+        assertTrue(index.slot("72115a") < 0);
+        assertTrue(index.slot(null) < 0);
+        assertTrue(PinCodeGeoIndex.empty().slot("721151") < 0);
+    }
+
+    @Test
+    void testMalformedRowIsRejected() {
+        InputStream csv = new ByteArrayInputStream("721151,22.4586\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> PinCodeGeoIndex.load(csv));
+    }
+
+    @Test
+    void testUnparsableCoordinateNamesTheRow() {
+        InputStream csv = new ByteArrayInputStream("721151,22.4586,87.7745\n700001,north,88.3639\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PinCodeGeoIndex.load(csv));
+        assertTrue(e.getMessage().startsWith("Malformed geo index row 2"));
+        assertInstanceOf(NumberFormatException.class, e.getCause());
+    }
+
+    private static PinCodeGeoIndex load() throws IOException {
+        try (InputStream in = PinCodeGeoIndexTest.class.getResourceAsStream("/pincodes-sample.csv")) {
+            return PinCodeGeoIndex.load(in);
+        }
+    }
+}
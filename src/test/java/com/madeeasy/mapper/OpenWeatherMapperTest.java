@@ -0,0 +1,58 @@
+package com.madeeasy.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenWeatherMapperTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void testMapsWholeNumbersAndSkipsUnknownFields() throws Exception {
+        // "temp": 25 used to blow up the (double) cast on the Map based path
+        String json = """
+                {"coord":{"lon":87,"lat":22},
+                 "weather":[{"id":800,"main":"Clear","description":"clear sky","icon":"01d"}],
+                 "main":{"temp":25,"feels_like":26,"pressure":1015,"humidity":57,"sea_level":1015},
+                 "visibility":10000,"wind":{"speed":3,"deg":12},"clouds":{"all":0},
+                 "sys":{"country":"IN","sunrise":1731111472,"sunset":1731151661},
+                 "timezone":19800,"name":"Tamluk","cod":200}
+                """;
+        CurrentWeatherResponse response = objectMapper.readValue(json, CurrentWeatherResponse.class);
+        PinCodeLocation location = PinCodeLocation.builder().pinCode("721151").build();
+
+        WeatherInfo weatherInfo = OpenWeatherMapper.toWeatherInfo(response, location, "721151", LocalDate.of(2024, 11, 9));
+        WeatherDetail detail = OpenWeatherMapper.toWeatherDetail(response);
+
+        assertEquals("IN", weatherInfo.getCountry());
+        assertEquals(19800, weatherInfo.getTimezoneOffset());
+        assertEquals(1731111472, weatherInfo.getSunriseTime());
+        assertEquals("Clear", detail.getMain());
+        assertEquals(25.0, detail.getTemp());
+        assertEquals(26.0, detail.getFeelsLike());
+        assertEquals(3.0, detail.getWindSpeed());
+        assertEquals(0, detail.getCloudiness());
+    }
+
+    @Test
+    void testMissingSectionsLeaveColumnsNull() throws Exception {
+        CurrentWeatherResponse response = objectMapper.readValue("{\"weather\":[],\"name\":\"Tamluk\"}",
+                CurrentWeatherResponse.class);
+
+        WeatherDetail detail = OpenWeatherMapper.toWeatherDetail(response);
+
+        assertNull(detail.getMain());
+        assertNull(detail.getTemp());
+        assertNull(detail.getWindSpeed());
+        assertNull(OpenWeatherMapper.toWeatherInfo(response, null, "721151", LocalDate.now()).getCountry());
+    }
+}
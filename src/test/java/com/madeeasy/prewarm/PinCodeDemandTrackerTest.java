@@ -0,0 +1,68 @@
+package com.madeeasy.prewarm;
+
+import com.madeeasy.config.WeatherProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinCodeDemandTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testTopPinCodesAreMostRequestedFirst() {
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(new WeatherProperties(), meterRegistry);
+        request(tracker, "721151", 5);
+        request(tracker, "700001", 9);
+        request(tracker, "110001", 1);
+
+        assertEquals(List.of("700001", "721151"), tracker.topPinCodes(2));
+        assertEquals(List.of("700001", "721151", "110001"), tracker.topPinCodes(10));
+    }
+
+    @Test
+    void testDecayHalvesCountsAndDropsColdPinCodes() {
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(new WeatherProperties(), meterRegistry);
+        request(tracker, "721151", 4);
+        request(tracker, "110001", 1);
+
+        tracker.decay();
+        request(tracker, "700001", 3);
+
+        // 721151 is down to 2, below the 3 fresh requests for 700001; 110001 is forgotten
+        assertEquals(List.of("700001", "721151"), tracker.topPinCodes(10));
+    }
+
+    @Test
+    void testNewPinCodesAreIgnoredOnceTheTableIsFull() {
+        WeatherProperties properties = new WeatherProperties();
+        properties.getPrewarm().setMaxTrackedPinCodes(2);
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(properties, meterRegistry);
+        request(tracker, "721151", 1);
+        request(tracker, "700001", 1);
+        request(tracker, "110001", 5);
+
+        assertEquals(2, tracker.topPinCodes(10).size());
+        assertFalse(tracker.topPinCodes(10).contains("110001"));
+    }
+
+    @Test
+    void testWarmAndColdRequestsAreCounted() {
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(new WeatherProperties(), meterRegistry);
+        tracker.recordCold("721151");
+        tracker.recordWarm("721151");
+        tracker.recordWarm("721151");
+
+        assertEquals(2, meterRegistry.get("weather.requests").tag("served", "warm").counter().count());
+        assertEquals(1, meterRegistry.get("weather.requests").tag("served", "cold").counter().count());
+    }
+
+    private static void request(PinCodeDemandTracker tracker, String pinCode, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordWarm(pinCode);
+        }
+    }
+}
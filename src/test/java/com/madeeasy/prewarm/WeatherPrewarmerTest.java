@@ -0,0 +1,70 @@
+package com.madeeasy.prewarm;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WeatherPrewarmerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 11, 9);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeatherService weatherService = mock(WeatherService.class);
+
+    @Test
+    void testLoadsTopPinCodesWithBoundedConcurrency() {
+        WeatherProperties properties = new WeatherProperties();
+        properties.getPrewarm().setTopK(6);
+        properties.getPrewarm().setMaxConcurrency(2);
+        properties.getPrewarm().setRequestsPerSecond(1000);
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(properties, meterRegistry);
+        for (int pinCode = 100001; pinCode <= 100008; pinCode++) {
+            for (int i = 0; i < pinCode - 100000; i++) {
+                tracker.recordCold(String.valueOf(pinCode));
+            }
+        }
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(weatherService.warmUp(any(), eq(TODAY))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return true;
+        });
+
+        new WeatherPrewarmer(weatherService, tracker, properties, Clock.systemUTC(), meterRegistry).prewarm(TODAY);
+
+        for (int pinCode = 100003; pinCode <= 100008; pinCode++) {
+            verify(weatherService).warmUp(String.valueOf(pinCode), TODAY);
+        }
+        verify(weatherService, never()).warmUp("100001", TODAY);
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(6, meterRegistry.get("weather.prewarm.loads").tag("outcome", "loaded").counter().count());
+    }
+
+    @Test
+    void testFailuresAreCountedAndDoNotStopTheRun() {
+        WeatherProperties properties = new WeatherProperties();
+        PinCodeDemandTracker tracker = new PinCodeDemandTracker(properties, meterRegistry);
+        tracker.recordCold("721151");
+        tracker.recordCold("700001");
+        when(weatherService.warmUp("721151", TODAY)).thenThrow(new RuntimeException("429 Too Many Requests"));
+        when(weatherService.warmUp("700001", TODAY)).thenReturn(false);
+
+        new WeatherPrewarmer(weatherService, tracker, properties, Clock.systemUTC(), meterRegistry).prewarm(TODAY);
+
+        assertEquals(1, meterRegistry.get("weather.prewarm.loads").tag("outcome", "failed").counter().count());
+        assertEquals(1, meterRegistry.get("weather.prewarm.loads").tag("outcome", "already-warm").counter().count());
+    }
+}
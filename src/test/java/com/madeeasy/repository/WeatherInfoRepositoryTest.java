@@ -0,0 +1,87 @@
+package com.madeeasy.repository;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.support.DataJpaStatisticsTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+
+import static com.madeeasy.support.WeatherFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaStatisticsTest
+class WeatherInfoRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @Autowired
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Autowired
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        weatherInfoRepository.deleteAll();
+        pinCodeLocationRepository.deleteAll();
+    }
+
+    @Test
+    void testFindByPinCodeAndDateLoadsEverythingInOneQuery() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("721151"));
+        weatherInfoRepository.save(weatherInfo(location, DATE));
+        Statistics statistics = statistics(entityManagerFactory);
+        statistics.clear();
+
+        WeatherInfo found = weatherInfoRepository.findByPinCodeAndDate("721151", DATE).orElseThrow();
+
+        // Read outside any transaction: details and location must already be there
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(Hibernate.isInitialized(found.getWeatherDetails()));
+        assertEquals(2, found.getWeatherDetails().size());
+        assertEquals("721151", found.getLocation().getPinCode());
+    }
+
+    @Test
+    void testFindLatestByPinCodeLoadsOnlyTheLatestDay() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("721151"));
+        for (int day = 0; day < 5; day++) {
+            weatherInfoRepository.save(weatherInfo(location, DATE.minusDays(day)));
+        }
+        PinCodeLocation other = pinCodeLocationRepository.save(location("700001"));
+        weatherInfoRepository.save(weatherInfo(other, DATE.plusDays(1)));
+        Statistics statistics = statistics(entityManagerFactory);
+        statistics.clear();
+
+        WeatherInfo found = weatherInfoRepository.findLatestByPinCode("721151").orElseThrow();
+
+        assertEquals(DATE, found.getDate());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        // One weather row and its two details, not every stored day
+        assertEquals(1, statistics.getEntityStatistics(WeatherInfo.class.getName()).getLoadCount());
+        assertEquals(2, statistics.getEntityStatistics(WeatherDetail.class.getName()).getLoadCount());
+        assertTrue(Hibernate.isInitialized(found.getWeatherDetails()));
+        assertTrue(weatherInfoRepository.findLatestByPinCode("110001").isEmpty());
+    }
+
+    @Test
+    void testSecondRowForSamePinCodeAndDateIsRejected() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("721151"));
+        weatherInfoRepository.save(weatherInfo(location, DATE));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> weatherInfoRepository.save(weatherInfo(location, DATE)));
+        assertTrue(weatherInfoRepository.findByPinCodeAndDate("721151", DATE).isPresent());
+    }
+}
@@ -0,0 +1,181 @@
+package com.madeeasy.resilience;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import com.madeeasy.support.OpenWeatherStubServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the guard against the local OpenWeather stub with injected errors and latency.
+ */
+class OpenWeatherGuardTest {
+
+    private OpenWeatherStubServer stub;
+    private RestTemplate restTemplate;
+    private WeatherProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new OpenWeatherStubServer().start();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(Duration.ofMillis(200));
+        restTemplate = new RestTemplate(requestFactory);
+
+        properties = new WeatherProperties();
+        WeatherProperties.Resilience settings = properties.getResilience();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumNumberOfCalls(4);
+        settings.setOpenStateDuration(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testServerErrorsOpenTheCircuitAndStopUpstreamCalls() {
+        OpenWeatherGuard guard = guard();
+        stub.status(500);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+
+        // Even once OpenWeather recovers, nothing reaches it while the circuit is open
+        stub.status(200);
+        OpenWeatherUnavailableException rejected = assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+        assertEquals("OpenWeather circuit is open", rejected.getMessage());
+        assertEquals(4, stub.weatherRequests());
+    }
+
+    @Test
+    void testThrottlingAndTimeoutsCountAsFailures() {
+        OpenWeatherGuard guard = guard();
+
+        stub.status(429);
+        assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+        assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+        stub.status(200).latency(Duration.ofMillis(500));
+        assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+        assertThrows(OpenWeatherUnavailableException.class, () -> callWeather(guard));
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+    }
+
+    @Test
+    void testNotFoundIsAnAnswerNotAFailure() {
+        OpenWeatherGuard guard = guard();
+        stub.status(404);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpClientErrorException.NotFound.class, () -> callWeather(guard));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void testBulkheadRejectsCallsBeyondTheConcurrencyLimit() throws Exception {
+        properties.getResilience().setMaxConcurrentCalls(2);
+        OpenWeatherGuard guard = guard();
+        stub.latency(Duration.ofMillis(150));
+
+        List<Future<String>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 6; i++) {
+                calls.add(executor.submit(() -> callWeather(guard)));
+            }
+        }
+
+        int rejected = 0;
+        for (Future<String> call : calls) {
+            try {
+                call.get();
+            } catch (Exception e) {
+                assertInstanceOf(OpenWeatherUnavailableException.class, e.getCause());
+                rejected++;
+            }
+        }
+        assertEquals(4, rejected);
+        assertEquals(2, stub.weatherRequests());
+        // Rejections by our own bulkhead say nothing about OpenWeather
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void testRateLimiterCapsCallsPerSecond() {
+        properties.getResilience().setRequestsPerSecond(3);
+        properties.getResilience().setRateLimitTimeout(Duration.ZERO);
+        OpenWeatherGuard guard = guard();
+
+        int passed = 0;
+        for (int i = 0; i < 10; i++) {
+            try {
+                callWeather(guard);
+                passed++;
+            } catch (OpenWeatherUnavailableException e) {
+                assertEquals("OpenWeather rate limit reached", e.getMessage());
+            }
+        }
+
+        // A refresh period boundary may fall inside the loop, so allow one extra window
+        assertTrue(passed >= 3 && passed <= 6, "passed " + passed);
+        assertEquals(passed, stub.weatherRequests());
+    }
+
+    @Test
+    void testThrottledAsyncCallDoesNotHoldTheCallingThread() throws Exception {
+        properties.getResilience().setRequestsPerSecond(1);
+        properties.getResilience().setRateLimitTimeout(Duration.ofSeconds(3));
+        OpenWeatherGuard guard = guard();
+        ExecutorService database = Executors.newSingleThreadExecutor(task -> new Thread(task, "weather-db-1"));
+        ExecutorService upstream = Executors.newCachedThreadPool(task -> new Thread(task, "weather-upstream"));
+        try {
+            // This second's permit and the next one's are taken, the third call waits at least a second
+            guard.callAsync(OpenWeatherGuardTest::startedOn, upstream);
+            guard.callAsync(OpenWeatherGuardTest::startedOn, upstream);
+            CompletableFuture<String> throttled = database.submit(() -> guard.callAsync(OpenWeatherGuardTest::startedOn, upstream))
+                    .get(200, TimeUnit.MILLISECONDS);
+
+            // The database thread is free for other work while the call waits for its permit
+            assertNull(database.submit(() -> null).get(200, TimeUnit.MILLISECONDS));
+            assertFalse(throttled.isDone());
+            assertEquals("weather-upstream", throttled.get(5, TimeUnit.SECONDS));
+        } finally {
+            database.shutdownNow();
+            upstream.shutdownNow();
+        }
+    }
+
+    private static CompletableFuture<String> startedOn() {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    private OpenWeatherGuard guard() {
+        return new OpenWeatherGuard(properties, new SimpleMeterRegistry());
+    }
+
+    private String callWeather(OpenWeatherGuard guard) {
+        return guard.call(() -> restTemplate.getForObject(stub.weatherUrl(), String.class));
+    }
+}
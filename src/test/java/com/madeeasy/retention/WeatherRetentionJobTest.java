@@ -0,0 +1,137 @@
+package com.madeeasy.retention;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDailySummary;
+import com.madeeasy.entity.WeatherDailySummaryId;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherDailySummaryRepository;
+import com.madeeasy.repository.WeatherDetailRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.support.WeatherFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"weather.retention.batch-size=3", "weather.retention.pause-between-batches=0ms",
+        "weather.retention.summarize=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WeatherRetentionBatch.class, WeatherRetentionJob.class, WeatherRetentionJobTest.Config.class})
+class WeatherRetentionJobTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 11, 1);
+
+    @Autowired
+    private WeatherRetentionJob retentionJob;
+
+    @Autowired
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Autowired
+    private WeatherDetailRepository weatherDetailRepository;
+
+    @Autowired
+    private WeatherDailySummaryRepository weatherDailySummaryRepository;
+
+    @Autowired
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        weatherInfoRepository.deleteAll();
+        weatherDailySummaryRepository.deleteAll();
+        pinCodeLocationRepository.deleteAll();
+    }
+
+    @Test
+    void testExpiredDaysAreDeletedInBatchesAndSummarized() {
+        PinCodeLocation location = pinCodeLocationRepository.save(WeatherFixtures.location("721151"));
+        // Seven expired days and three kept ones
+        for (int day = -7; day < 3; day++) {
+            weatherInfoRepository.save(weatherInfo(location, CUTOFF.plusDays(day), 20.0 + day));
+        }
+        // Two more expired days, nine in batches of three: one whose primary condition sorts after its second,
+        // one with no details at all
+        WeatherInfo rainy = WeatherFixtures.weatherInfo(location, CUTOFF.minusDays(8), "Rain", "Clear");
+        weatherInfoRepository.save(rainy);
+        WeatherInfo empty = WeatherFixtures.weatherInfo(location, CUTOFF.minusDays(9));
+        empty.getWeatherDetails().clear();
+        weatherInfoRepository.save(empty);
+
+        long deleted = retentionJob.purgeBefore(CUTOFF);
+
+        assertEquals(9, deleted);
+        assertEquals(List.of(CUTOFF, CUTOFF.plusDays(1), CUTOFF.plusDays(2)),
+                weatherInfoRepository.findAll().stream().map(WeatherInfo::getDate).sorted().toList());
+        assertEquals(3, weatherDetailRepository.count());
+
+        assertEquals(9, weatherDailySummaryRepository.count());
+        WeatherDailySummary summary = weatherDailySummaryRepository
+                .findById(new WeatherDailySummaryId("721151", CUTOFF.minusDays(1))).orElseThrow();
+        assertEquals("Clear", summary.getMain());
+        assertEquals(19.0, summary.getTemp());
+        assertEquals(57, summary.getHumidity());
+        assertEquals("Rain", weatherDailySummaryRepository
+                .findById(new WeatherDailySummaryId("721151", CUTOFF.minusDays(8))).orElseThrow().getMain());
+        WeatherDailySummary noDetails = weatherDailySummaryRepository
+                .findById(new WeatherDailySummaryId("721151", CUTOFF.minusDays(9))).orElseThrow();
+        assertNull(noDetails.getMain());
+        assertNull(noDetails.getTemp());
+        assertEquals(9, meterRegistry.get("weather.retention.rows").tag("action", "deleted").counter().count());
+    }
+
+    @Test
+    void testNothingExpiredIsANoOp() {
+        PinCodeLocation location = pinCodeLocationRepository.save(WeatherFixtures.location("721151"));
+        weatherInfoRepository.save(weatherInfo(location, CUTOFF, 20.0));
+
+        assertEquals(0, retentionJob.purgeBefore(CUTOFF));
+        assertEquals(1, weatherInfoRepository.count());
+        assertEquals(0, weatherDailySummaryRepository.count());
+    }
+
+    private static WeatherInfo weatherInfo(PinCodeLocation location, LocalDate date, double temp) {
+        WeatherInfo weatherInfo = WeatherFixtures.weatherInfo(location, date, "Clear");
+        weatherInfo.getWeatherDetails().get(0).setTemp(temp);
+        weatherInfo.getWeatherDetails().get(0).setHumidity(57);
+        return weatherInfo;
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        // Bound from the test properties above
+        @Bean
+        WeatherProperties weatherProperties() {
+            return new WeatherProperties();
+        }
+
+        @Bean
+        Clock clock() {
+            return Clock.systemUTC();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.support.DataJpaStatisticsTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.madeeasy.support.WeatherFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements one cache miss sends to the database.
+ * Runs outside a test transaction so that the writer's own transaction actually commits and flushes.
+ */
+@DataJpaStatisticsTest
+@Import(WeatherInfoWriter.class)
+class WeatherInfoWriterTest {
+
+    @Autowired
+    private WeatherInfoWriter weatherInfoWriter;
+
+    @Autowired
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Autowired
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static final AtomicInteger warmUps = new AtomicInteger();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = statistics(entityManagerFactory);
+        // The pooled optimizer hands out a single id from the very first sequence value, so write twice
+        // to get every sequence onto a full block and keep the counts below at steady state
+        for (int i = 0; i < 2; i++) {
+            String pinCode = String.format("%06d", warmUps.incrementAndGet());
+            PinCodeLocation warmUp = pinCodeLocationRepository.save(location(pinCode));
+            weatherInfoWriter.save(weatherInfo(warmUp, LocalDate.of(2000, 1, 1), "Clear"));
+        }
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherInfoRepository.deleteAll();
+        pinCodeLocationRepository.deleteAll();
+    }
+
+    @Test
+    void testMissIsWrittenWithOneStatementPerTable() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("721151"));
+        location.setCityName("Tamluk");
+        statistics.clear();
+
+        WeatherInfo saved = weatherInfoWriter.save(weatherInfo(location, LocalDate.of(2024, 11, 9), "Clear"));
+
+        // UPDATE pin_code_location, INSERT weather_info, INSERT weather_detail
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getWeatherDetails().get(0).getId());
+        assertEquals("Tamluk", pinCodeLocationRepository.findByPinCode("721151").orElseThrow().getCityName());
+    }
+
+    @Test
+    void testDetailsAreBatchedIntoOneStatement() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("700001"));
+        statistics.clear();
+
+        weatherInfoWriter.save(weatherInfo(location, LocalDate.of(2024, 11, 9), "Clear", "Haze", "Mist"));
+
+        // No city name to update; three detail rows share one batched INSERT
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(4, statistics.getEntityInsertCount());
+        assertTrue(weatherInfoRepository.findByPinCodeAndDate("700001", LocalDate.of(2024, 11, 9)).isPresent());
+    }
+
+    @Test
+    void testRefreshOverwritesTheRowInPlace() {
+        PinCodeLocation location = pinCodeLocationRepository.save(location("560001"));
+        LocalDate date = LocalDate.of(2024, 11, 9);
+        WeatherInfo stored = weatherInfoWriter.save(weatherInfo(location, date));
+
+        WeatherInfo fresh = weatherInfo(location, date, "Clear");
+        fresh.setFetchedAt(Instant.parse("2024-11-09T06:00:00Z"));
+        fresh.getWeatherDetails().get(0).setMain("Rain");
+        WeatherInfo refreshed = weatherInfoWriter.refresh(stored.getId(), fresh);
+
+        WeatherInfo reloaded = weatherInfoRepository.findByPinCodeAndDate("560001", date).orElseThrow();
+        assertEquals(stored.getId(), refreshed.getId());
+        assertEquals(Instant.parse("2024-11-09T06:00:00Z"), reloaded.getFetchedAt());
+        assertEquals(1, reloaded.getWeatherDetails().size());
+        assertEquals("Rain", reloaded.getWeatherDetails().get(0).getMain());
+    }
+}
@@ -0,0 +1,108 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.support.DataJpaStatisticsTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.madeeasy.support.WeatherFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaStatisticsTest
+@Import({WeatherRangeReader.class, WeatherRangeReaderTest.Config.class})
+class WeatherRangeReaderTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 11, 1);
+
+    @Autowired
+    private WeatherRangeReader weatherRangeReader;
+
+    @Autowired
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Autowired
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WeatherProperties weatherProperties;
+
+    @AfterEach
+    void tearDown() {
+        weatherProperties.getRange().setChunkDays(new WeatherProperties.Range().getChunkDays());
+        weatherInfoRepository.deleteAll();
+        pinCodeLocationRepository.deleteAll();
+    }
+
+    @Test
+    void testShortRangeIsReadInDateOrderFromOneQuery() {
+        PinCodeLocation tamluk = pinCodeLocationRepository.save(location("721151"));
+        PinCodeLocation other = pinCodeLocationRepository.save(location("654321"));
+        // Saved out of order, with a day outside the range and another pin code on the same days
+        for (int day : new int[]{3, 0, 2, 5}) {
+            weatherInfoRepository.save(weatherInfo(tamluk, FROM.plusDays(day)));
+            weatherInfoRepository.save(weatherInfo(other, FROM.plusDays(day)));
+        }
+        Statistics statistics = statistics(entityManagerFactory);
+        statistics.clear();
+
+        List<WeatherInfo> seen = new ArrayList<>();
+        weatherRangeReader.forEach("721151", FROM, FROM.plusDays(3), seen::add);
+
+        assertEquals(List.of(FROM, FROM.plusDays(2), FROM.plusDays(3)), seen.stream().map(WeatherInfo::getDate).toList());
+        // Two details per day, joined in the same scan without repeating the day
+        seen.forEach(weatherInfo -> assertEquals(2, weatherInfo.getWeatherDetails().size()));
+        assertTrue(seen.stream().allMatch(weatherInfo -> weatherInfo.getLocation().getPinCode().equals("721151")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testLongRangeIsReadInChunksWithNoTransactionWhileTheConsumerRuns() {
+        weatherProperties.getRange().setChunkDays(2);
+        PinCodeLocation tamluk = pinCodeLocationRepository.save(location("721151"));
+        // Days 0..4 and 6, so one chunk comes back with a single row and one with none
+        for (int day : new int[]{0, 1, 2, 3, 4, 6}) {
+            weatherInfoRepository.save(weatherInfo(tamluk, FROM.plusDays(day)));
+        }
+        Statistics statistics = statistics(entityManagerFactory);
+        statistics.clear();
+
+        List<LocalDate> seen = new ArrayList<>();
+        weatherRangeReader.forEach("721151", FROM, FROM.plusDays(8), weatherInfo -> {
+            // Each chunk has committed before it is handed over, no connection waits on the consumer
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            assertEquals(2, weatherInfo.getWeatherDetails().size());
+            seen.add(weatherInfo.getDate());
+        });
+
+        assertEquals(List.of(FROM, FROM.plusDays(1), FROM.plusDays(2), FROM.plusDays(3), FROM.plusDays(4),
+                FROM.plusDays(6)), seen);
+        // 0-1, 2-3, 4-5, 6-7 and 8
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        WeatherProperties weatherProperties() {
+            return new WeatherProperties();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.cache.WeatherFreshness;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.shared.NoSharedWeatherCache;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.geo.NearbyLocationIndex;
+import com.madeeasy.geo.PinCodeGeoIndex;
+import com.madeeasy.logging.UpstreamPayloadLogger;
+import com.madeeasy.metrics.WeatherStageMetrics;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.resilience.OpenWeatherGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fires bursts of concurrent requests at a cold (pinCode, date) and counts how often
+ * the stubbed OpenWeather endpoints are actually called.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WeatherServiceImplConcurrencyTest {
+
+    private static final int CALLERS = 64;
+
+    @Mock
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Mock
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Mock
+    private WeatherInfoWriter weatherInfoWriter;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private WeatherServiceImpl weatherServiceImpl;
+
+    private final AtomicInteger geocodingCalls = new AtomicInteger();
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        // Real cache fed by saved events, so callers arriving after a finished fetch are served from memory
+        WeatherInfoCache weatherInfoCache = new WeatherInfoCache(new WeatherProperties(), new SimpleMeterRegistry());
+        ApplicationEventPublisher eventPublisher = event -> weatherInfoCache.onWeatherInfoSaved((WeatherInfoSavedEvent) event);
+        weatherServiceImpl = new WeatherServiceImpl(pinCodeLocationRepository, weatherInfoRepository,
+                weatherInfoWriter, restTemplate, weatherInfoCache, eventPublisher, new WeatherProperties(),
+                PinCodeGeoIndex.empty(), new PinCodeDemandTracker(new WeatherProperties(), new SimpleMeterRegistry()),
+                new WeatherFreshness(Clock.systemUTC(), new WeatherProperties()),
+                new OpenWeatherGuard(new WeatherProperties(), new SimpleMeterRegistry()),
+                new WeatherStageMetrics(new SimpleMeterRegistry()), new UpstreamPayloadLogger(new WeatherProperties()), mock(WeatherRangeReader.class),
+                mock(NearbyLocationIndex.class), mock(WeatherWriteBehind.class),
+                new NoSharedWeatherCache());
+
+        when(weatherInfoRepository.findByPinCodeAndDate(anyString(), any(LocalDate.class))).thenReturn(Optional.empty());
+        when(pinCodeLocationRepository.findByPinCode(anyString())).thenReturn(Optional.empty());
+        when(pinCodeLocationRepository.save(any(PinCodeLocation.class))).thenAnswer(i -> i.getArgument(0));
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Slow upstream so that every caller arrives while the first fetch is still running
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(GeocodingResponse.class), anyMap()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    geocodingCalls.incrementAndGet();
+                    return new ResponseEntity<>(new GeocodingResponse(null, "CityName", 12.34, 56.78, "IN"), HttpStatus.OK);
+                });
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    weatherCalls.incrementAndGet();
+                    return new ResponseEntity<>(weatherResponse(), HttpStatus.OK);
+                });
+    }
+
+    @Test
+    void concurrentMissesForSameKeyShareOneUpstreamFetch() throws Exception {
+        LocalDate forDate = LocalDate.now();
+
+        List<WeatherInfo> results = runConcurrently(CALLERS, i -> weatherServiceImpl.getWeatherInfo("721151", forDate));
+
+        assertEquals(1, geocodingCalls.get());
+        assertEquals(1, weatherCalls.get());
+        verify(weatherInfoRepository, times(1)).findByPinCodeAndDate("721151", forDate);
+        results.forEach(result -> assertSame(results.get(0), result));
+    }
+
+    @Test
+    void distinctKeysAreFetchedIndependently() throws Exception {
+        LocalDate forDate = LocalDate.now();
+
+        // Four callers per pin code, eight pin codes
+        runConcurrently(32, i -> weatherServiceImpl.getWeatherInfo("7211" + (50 + i % 8), forDate));
+
+        assertEquals(8, geocodingCalls.get());
+        assertEquals(8, weatherCalls.get());
+    }
+
+    @Test
+    void sameLocationIsGeocodedOnceAcrossDates() throws Exception {
+        LocalDate today = LocalDate.now();
+
+        runConcurrently(16, i -> weatherServiceImpl.getWeatherInfo("721151", today.minusDays(i % 2)));
+
+        assertEquals(1, geocodingCalls.get());
+        assertEquals(2, weatherCalls.get());
+    }
+
+    private List<WeatherInfo> runConcurrently(int callers, IntFunction<WeatherInfo> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<WeatherInfo>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                int caller = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.apply(caller);
+                }));
+            }
+            start.countDown();
+
+            List<WeatherInfo> results = new ArrayList<>();
+            for (Future<WeatherInfo> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+
+    private static CurrentWeatherResponse weatherResponse() {
+        return new CurrentWeatherResponse(
+                new CurrentWeatherResponse.Coord(12.34, 56.78),
+                List.of(new CurrentWeatherResponse.Weather("Clear", "clear sky", "01d")),
+                new CurrentWeatherResponse.Main(25.0, 23.0, 1012, 60),
+                10000,
+                new CurrentWeatherResponse.Wind(5.5),
+                new CurrentWeatherResponse.Clouds(20),
+                new CurrentWeatherResponse.Sys("IN", 12345, 67890),
+                19800,
+                "CityName");
+    }
+}
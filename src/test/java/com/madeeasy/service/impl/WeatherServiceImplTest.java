@@ -1,28 +1,54 @@
 package com.madeeasy.service.impl;
 
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherFreshness;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.shared.NoSharedWeatherCache;
+import com.madeeasy.cache.shared.SharedWeatherCache;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.dto.BatchWeatherResponse;
+import com.madeeasy.dto.WeatherInfoResponse;
+import com.madeeasy.dto.openweather.CurrentWeatherResponse;
+import com.madeeasy.dto.openweather.GeocodingResponse;
 import com.madeeasy.entity.PinCodeLocation;
 import com.madeeasy.entity.WeatherDetail;
 import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.exception.OpenWeatherUnavailableException;
+import com.madeeasy.geo.NearbyLocationIndex;
+import com.madeeasy.geo.PinCodeGeoIndex;
+import com.madeeasy.logging.UpstreamPayloadLogger;
+import com.madeeasy.metrics.WeatherStageMetrics;
+import com.madeeasy.prewarm.PinCodeDemandTracker;
 import com.madeeasy.repository.PinCodeLocationRepository;
-import com.madeeasy.repository.WeatherDetailRepository;
 import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.resilience.OpenWeatherGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -37,11 +63,53 @@ class WeatherServiceImplTest {
     private WeatherInfoRepository weatherInfoRepository;
 
     @Mock
-    private WeatherDetailRepository weatherDetailRepository;
+    private WeatherInfoWriter weatherInfoWriter;
 
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private WeatherInfoCache weatherInfoCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private WeatherProperties weatherProperties = new WeatherProperties();
+
+    @Spy
+    private PinCodeGeoIndex pinCodeGeoIndex = PinCodeGeoIndex.load(new ByteArrayInputStream(
+            "654321,12.97,77.59,Bengaluru\n".getBytes(StandardCharsets.UTF_8)));
+
+    @Mock
+    private PinCodeDemandTracker demandTracker;
+
+    @Mock
+    private WeatherFreshness weatherFreshness;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private OpenWeatherGuard openWeatherGuard = new OpenWeatherGuard(new WeatherProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private WeatherStageMetrics stageMetrics = new WeatherStageMetrics(meterRegistry);
+
+    @Spy
+    private UpstreamPayloadLogger payloadLogger = new UpstreamPayloadLogger(new WeatherProperties());
+
+    @Mock
+    private WeatherRangeReader weatherRangeReader;
+
+    @Mock
+    private NearbyLocationIndex nearbyLocationIndex;
+
+    @Mock
+    private WeatherWriteBehind writeBehind;
+
+    @Spy
+    private SharedWeatherCache sharedCache = new NoSharedWeatherCache();
+
     @InjectMocks
     private WeatherServiceImpl weatherServiceImpl;
 
@@ -60,6 +128,101 @@ class WeatherServiceImplTest {
 
         assertEquals(cachedWeatherInfo, result);
         verify(weatherInfoRepository, never()).save(any(WeatherInfo.class));
+        verify(weatherInfoCache).put(cachedWeatherInfo);
+    }
+
+    @Test
+    void testGetWeatherInfo_InMemoryHit() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        WeatherInfo cachedWeatherInfo = new WeatherInfo();
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.of(cachedWeatherInfo));
+
+        WeatherInfo result = weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        assertEquals(cachedWeatherInfo, result);
+        verifyNoInteractions(weatherInfoRepository, pinCodeLocationRepository, restTemplate);
+        verify(demandTracker).recordWarm(pinCode);
+    }
+
+    @Test
+    void testGetWeatherInfo_StaleTodayIsServedWhileOneRefreshRuns() throws Exception {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().id(7L).pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo stale = WeatherInfo.builder().id(42L).pinCode(pinCode).date(forDate).location(location).build();
+        WeatherInfo refreshed = WeatherInfo.builder().id(42L).pinCode(pinCode).date(forDate).country("IN").build();
+
+        CountDownLatch upstream = new CountDownLatch(1);
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.of(stale));
+        when(weatherFreshness.isStale(forDate, null)).thenReturn(true);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenAnswer(i -> {
+                    upstream.await();
+                    return new ResponseEntity<>(weatherResponse(), HttpStatus.OK);
+                });
+        when(weatherInfoWriter.refresh(eq(42L), any(WeatherInfo.class))).thenReturn(refreshed);
+
+        // Every caller gets the stale row immediately while the upstream call is still blocked
+        for (int i = 0; i < 10; i++) {
+            assertSame(stale, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+        }
+        upstream.countDown();
+
+        verify(eventPublisher, timeout(2000)).publishEvent(new WeatherInfoSavedEvent(refreshed));
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap());
+    }
+
+    @Test
+    void testClose_WaitsForRunningRefreshAndStopsStartingNewOnes() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().id(7L).pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo stale = WeatherInfo.builder().id(42L).pinCode(pinCode).date(forDate).location(location).build();
+        WeatherInfo refreshed = WeatherInfo.builder().id(42L).pinCode(pinCode).date(forDate).country("IN").build();
+
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.of(stale));
+        when(weatherFreshness.isStale(forDate, null)).thenReturn(true);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenAnswer(i -> {
+                    Thread.sleep(200);
+                    return new ResponseEntity<>(weatherResponse(), HttpStatus.OK);
+                });
+        when(weatherInfoWriter.refresh(eq(42L), any(WeatherInfo.class))).thenReturn(refreshed);
+
+        assertSame(stale, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+        weatherServiceImpl.close();
+
+        // The refresh was written before close returned, not against a closed context
+        verify(eventPublisher).publishEvent(new WeatherInfoSavedEvent(refreshed));
+        assertSame(stale, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap());
+    }
+
+    @Test
+    void testGetWeatherInfo_FreshOrPastRowIsNotRefreshed() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now().minusDays(1);
+        WeatherInfo past = WeatherInfo.builder().id(42L).pinCode(pinCode).date(forDate).build();
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.of(past));
+
+        assertSame(past, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+
+        verifyNoInteractions(restTemplate, weatherInfoWriter);
+    }
+
+    @Test
+    void testWarmUp_SkipsWhatIsInMemoryAndIsNotCountedAsDemand() {
+        LocalDate forDate = LocalDate.now();
+        WeatherInfo stored = WeatherInfo.builder().pinCode("123456").date(forDate).build();
+        when(weatherInfoCache.get(new WeatherCacheKey("654321", forDate))).thenReturn(Optional.of(stored));
+        when(weatherInfoRepository.findByPinCodeAndDate("123456", forDate)).thenReturn(Optional.of(stored));
+
+        assertFalse(weatherServiceImpl.warmUp("654321", forDate));
+        assertTrue(weatherServiceImpl.warmUp("123456", forDate));
+
+        verify(weatherInfoCache).put(stored);
+        verifyNoInteractions(demandTracker);
     }
 
 
@@ -102,26 +265,14 @@ class WeatherServiceImplTest {
         expectedWeatherInfo.setWeatherDetails(new ArrayList<>(List.of(expectedWeatherDetail)));
 
         // Mock response data structure to match the expected response from the weather API
-        Map<String, Object> responseBody = new HashMap<>();
-        responseBody.put("coord", Map.of("lat", 12.34, "lon", 56.78));
-        responseBody.put("sys", Map.of("country", "IN", "sunrise", 12345, "sunset", 67890));
-        responseBody.put("weather", List.of(Map.of("description", "clear sky", "icon", "01d")));
-        responseBody.put("main", Map.of("temp", 25.0, "feels_like", 23.0, "humidity", 60, "pressure", 1012));
-        responseBody.put("visibility", 10000);
-        responseBody.put("wind", Map.of("speed", 5.5));
-        responseBody.put("clouds", Map.of("all", 20));
-        responseBody.put("name", "CityName");
-        responseBody.put("timezone", 19800);
-
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
+        ResponseEntity<CurrentWeatherResponse> response = new ResponseEntity<>(weatherResponse(), HttpStatus.OK);
 
         // Mock repository and RestTemplate responses
         when(weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate)).thenReturn(Optional.empty());
         when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
                 .thenReturn(response);
-        when(weatherInfoRepository.save(any(WeatherInfo.class))).thenReturn(expectedWeatherInfo);
-        when(weatherDetailRepository.save(any(WeatherDetail.class))).thenReturn(expectedWeatherDetail);
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenReturn(expectedWeatherInfo);
 
         // Act
         WeatherInfo actualWeatherInfo = weatherServiceImpl.getWeatherInfo(pinCode, forDate);
@@ -144,22 +295,275 @@ class WeatherServiceImplTest {
 
         verify(weatherInfoRepository).findByPinCodeAndDate(pinCode, forDate);
         verify(pinCodeLocationRepository).findByPinCode(pinCode);
-        verify(weatherInfoRepository, times(2)).save(any(WeatherInfo.class));
-        verify(weatherDetailRepository).save(any(WeatherDetail.class));
+        // Info and details go to the database through a single writer call
+        verify(weatherInfoWriter).save(any(WeatherInfo.class));
+        verify(weatherInfoRepository, never()).save(any(WeatherInfo.class));
+        verify(eventPublisher).publishEvent(new WeatherInfoSavedEvent(expectedWeatherInfo));
+    }
+
+    @Test
+    void testGetWeatherInfo_MissRecordsEveryStage() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.of(2024, 11, 9);
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        // Lost the insert race: the second lookup finds the row stored by someone else
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate))
+                .thenReturn(Optional.empty(), Optional.of(WeatherInfo.builder().pinCode(pinCode).date(forDate).build()));
+
+        weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        assertEquals(1, stageCount("db-lookup", "miss"));
+        assertEquals(1, stageCount("location-lookup", "hit"));
+        assertEquals(1, stageCount("weather-api", "success"));
+        assertEquals(1, stageCount("mapping", "success"));
+        assertEquals(1, meterRegistry.get("weather.stage").tags("stage", "persist", "outcome", "error",
+                "exception", "DataIntegrityViolationException").timer().count());
+        assertNull(meterRegistry.find("weather.stage").tags("stage", "geocoding").timer());
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return meterRegistry.get("weather.stage").tags("stage", stage, "outcome", outcome).timer().count();
+    }
+
+
+
+    @Test
+    void testGetWeatherInfo_WriteBehindReturnsBeforeTheRowIsStored() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.of(2024, 11, 9);
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        when(writeBehind.offer(any(WeatherInfo.class))).thenReturn(true);
+
+        WeatherInfo weatherInfo = weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        assertEquals(pinCode, weatherInfo.getPinCode());
+        verify(writeBehind).offer(weatherInfo);
+        verify(weatherInfoCache).put(weatherInfo);
+        verifyNoInteractions(weatherInfoWriter, eventPublisher);
+    }
+
+    @Test
+    void testGetWeatherInfo_StaleRowStillQueuedForWriteBehindIsNotRefreshed() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().id(7L).pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo queued = WeatherInfo.builder().pinCode(pinCode).date(forDate).location(location).build();
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.of(queued));
+        lenient().when(weatherFreshness.isStale(forDate, null)).thenReturn(true);
+
+        assertSame(queued, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+        assertFalse(weatherServiceImpl.warmUp(pinCode, forDate));
+
+        // No upstream call whose answer could not be written anyway
+        verifyNoInteractions(restTemplate, weatherInfoWriter);
+    }
+
+    @Test
+    void testGetWeatherInfo_MissReusesSameDayWeatherOfNearbyPinCode() {
+        weatherProperties.getNearby().setReuseRadiusKm(2);
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.of(2024, 11, 9);
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo neighbour = WeatherInfo.builder().id(7L).pinCode("654323").date(forDate).country("IN")
+                .fetchedAt(Instant.parse("2024-11-09T06:00:00Z")).build();
+        neighbour.setWeatherDetails(List.of(WeatherDetail.builder().id(9L).main("Clear").temp(28.2)
+                .weatherInfo(neighbour).build()));
+
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(nearbyLocationIndex.within(12.34, 56.78, 2, 9)).thenReturn(List.of(
+                new NearbyLocationIndex.Nearby(pinCode, 0), new NearbyLocationIndex.Nearby("654322", 0.8),
+                new NearbyLocationIndex.Nearby("654323", 1.5)));
+        // The nearest neighbour has nothing for the day, the next one does
+        when(weatherInfoRepository.findByDateAndPinCodeIn(forDate, List.of("654322", "654323")))
+                .thenReturn(List.of(neighbour));
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenAnswer(i -> i.getArgument(0));
+
+        WeatherInfo weatherInfo = weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        assertEquals(pinCode, weatherInfo.getPinCode());
+        assertSame(location, weatherInfo.getLocation());
+        assertNull(weatherInfo.getId());
+        assertEquals(neighbour.getFetchedAt(), weatherInfo.getFetchedAt());
+        WeatherDetail detail = weatherInfo.getWeatherDetails().get(0);
+        assertEquals(List.of("Clear", 28.2), List.of(detail.getMain(), detail.getTemp()));
+        assertNull(detail.getId());
+        assertSame(weatherInfo, detail.getWeatherInfo());
+
+        verifyNoInteractions(restTemplate);
+        assertEquals(1, stageCount("nearby-reuse", "hit"));
+        verify(eventPublisher).publishEvent(new WeatherInfoSavedEvent(weatherInfo));
+    }
+
+    @Test
+    void testGetWeatherInfo_MissIgnoresNeighboursUnlessReuseIsConfigured() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.of(2024, 11, 9);
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenAnswer(i -> i.getArgument(0));
+
+        weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        verifyNoInteractions(nearbyLocationIndex);
+        assertEquals(1, stageCount("weather-api", "success"));
+    }
+
+    @Test
+    void testGetWeatherInfo_StaleNeighbourIsNotReused() {
+        weatherProperties.getNearby().setReuseRadiusKm(2);
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        Instant fetchedAt = Instant.parse("2024-11-09T06:00:00Z");
+        WeatherInfo neighbour = WeatherInfo.builder().pinCode("654322").date(forDate).fetchedAt(fetchedAt)
+                .weatherDetails(List.of()).build();
+
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(nearbyLocationIndex.within(anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of(new NearbyLocationIndex.Nearby("654322", 0.8)));
+        when(weatherInfoCache.get(new WeatherCacheKey(pinCode, forDate))).thenReturn(Optional.empty());
+        when(weatherInfoCache.get(new WeatherCacheKey("654322", forDate))).thenReturn(Optional.of(neighbour));
+        // Only the neighbour's row is old; our own fresh fetch is not
+        lenient().when(weatherFreshness.isStale(forDate, fetchedAt)).thenReturn(true);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenAnswer(i -> i.getArgument(0));
+
+        weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        assertEquals(1, stageCount("nearby-reuse", "miss"));
+        assertEquals(1, stageCount("weather-api", "success"));
+        verify(weatherInfoRepository, never()).findByDateAndPinCodeIn(any(), any());
+    }
+
+    @Test
+    void testGetWeatherNear_UsesClosestKnownPinCode() {
+        LocalDate forDate = LocalDate.of(2024, 11, 9);
+        WeatherInfo stored = WeatherInfo.builder().pinCode("654321").date(forDate).build();
+        when(nearbyLocationIndex.within(12.9, 77.6, 25, 1)).thenReturn(List.of(new NearbyLocationIndex.Nearby("654321", 3.2)));
+        when(weatherInfoCache.get(new WeatherCacheKey("654321", forDate))).thenReturn(Optional.of(stored));
+
+        assertEquals(Optional.of(stored), weatherServiceImpl.getWeatherNear(12.9, 77.6, forDate));
+        assertEquals(Optional.empty(), weatherServiceImpl.getWeatherNear(-33.9, 18.4, forDate));
+    }
+
+    @Test
+    void testGetWeatherInfoBatch_MixedSources() {
+        LocalDate forDate = LocalDate.now();
+        WeatherInfo fromMemory = WeatherInfo.builder().pinCode("100001").date(forDate).build();
+        WeatherInfo fromDatabase = WeatherInfo.builder().pinCode("100002").date(forDate).build();
+
+        PinCodeLocation location = PinCodeLocation.builder().pinCode("100003").latitude(12.34).longitude(56.78).build();
+
+        when(weatherInfoCache.get(new WeatherCacheKey("100001", forDate))).thenReturn(Optional.of(fromMemory));
+        when(weatherInfoRepository.findByDateAndPinCodeIn(forDate, Set.of("100002", "100003", "100004")))
+                .thenReturn(List.of(fromDatabase));
+        when(pinCodeLocationRepository.findByPinCode("100003")).thenReturn(Optional.of(location));
+        when(pinCodeLocationRepository.findByPinCode("100004")).thenReturn(Optional.empty());
+        when(restTemplate.exchange(contains("/data/"), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        when(restTemplate.exchange(contains("/geo/"), eq(HttpMethod.GET), isNull(), eq(GeocodingResponse.class), anyMap()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        when(weatherInfoWriter.save(any(WeatherInfo.class))).thenAnswer(i -> i.getArgument(0));
+
+        BatchWeatherResponse response = weatherServiceImpl.getWeatherInfoBatch(
+                List.of("100001", "100002", "100003", "100004"), forDate);
+
+        assertEquals(List.of("100001", "100002", "100003"), new ArrayList<>(response.results().keySet()));
+        assertEquals(WeatherInfoResponse.from(fromMemory), response.results().get("100001"));
+        assertEquals(WeatherInfoResponse.from(fromDatabase), response.results().get("100002"));
+        assertEquals("IN", response.results().get("100003").country());
+        assertEquals(Set.of("100004"), response.errors().keySet());
+
+        // Only the two database misses went upstream, and nothing was looked up one row at a time
+        verify(weatherInfoRepository, never()).findByPinCodeAndDate(anyString(), any(LocalDate.class));
+        verify(restTemplate).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap());
+        verify(restTemplate).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(GeocodingResponse.class), anyMap());
+    }
+
+    @Test
+    void testGetWeatherInfoBatch_FailureWithoutMessageIsNamedByItsType() {
+        LocalDate forDate = LocalDate.now();
+        when(pinCodeLocationRepository.findByPinCode("100001")).thenThrow(new IllegalStateException());
+
+        BatchWeatherResponse response = weatherServiceImpl.getWeatherInfoBatch(List.of("100001"), forDate);
+
+        assertEquals(Map.of("100001", "IllegalStateException"), response.errors());
+    }
+
+    @Test
+    void testGetWeatherInfo_ConcurrentInsertElsewhere() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo storedElsewhere = WeatherInfo.builder().pinCode(pinCode).date(forDate).build();
+
+        when(weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedElsewhere));
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenReturn(new ResponseEntity<>(weatherResponse(), HttpStatus.OK));
+        when(weatherInfoWriter.save(any(WeatherInfo.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_weather_info_pin_code_date"));
+
+        WeatherInfo result = weatherServiceImpl.getWeatherInfo(pinCode, forDate);
+
+        // The row that won the unique index is served instead of failing the request
+        assertSame(storedElsewhere, result);
+        verify(weatherInfoCache).put(storedElsewhere);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testGetWeatherInfo_UpstreamDownServesLastKnownDay() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
+        WeatherInfo yesterday = WeatherInfo.builder().pinCode(pinCode).date(forDate.minusDays(1)).build();
+
+        when(weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate)).thenReturn(Optional.empty());
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        when(weatherInfoRepository.findLatestByPinCode(pinCode)).thenReturn(Optional.of(yesterday));
+
+        assertSame(yesterday, weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+        verifyNoInteractions(weatherInfoWriter);
     }
 
+    @Test
+    void testGetWeatherInfo_UpstreamDownWithNothingStoredFails() {
+        String pinCode = "123456";
+        LocalDate forDate = LocalDate.now();
+        PinCodeLocation location = PinCodeLocation.builder().pinCode(pinCode).latitude(12.34).longitude(56.78).build();
 
+        when(weatherInfoRepository.findByPinCodeAndDate(pinCode, forDate)).thenReturn(Optional.empty());
+        when(pinCodeLocationRepository.findByPinCode(pinCode)).thenReturn(Optional.of(location));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap()))
+                .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        when(weatherInfoRepository.findLatestByPinCode(pinCode)).thenReturn(Optional.empty());
+
+        assertThrows(OpenWeatherUnavailableException.class, () -> weatherServiceImpl.getWeatherInfo(pinCode, forDate));
+    }
 
     @Test
     void testFetchAndSaveLocation_Success() {
         String pinCode = "123456";
-        Map<String, Object> responseBody = new HashMap<>();
-        responseBody.put("lat", 12.34);
-        responseBody.put("lon", 56.78);
+        GeocodingResponse responseBody = new GeocodingResponse(pinCode, "CityName", 12.34, 56.78, "IN");
 
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
+        ResponseEntity<GeocodingResponse> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
         when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
-                any(ParameterizedTypeReference.class))).thenReturn(response);
+                eq(GeocodingResponse.class), anyMap())).thenReturn(response);
         when(pinCodeLocationRepository.save(any(PinCodeLocation.class))).thenAnswer(i -> i.getArguments()[0]);
 
         PinCodeLocation result = weatherServiceImpl.fetchAndSaveLocation(pinCode);
@@ -171,6 +575,18 @@ class WeatherServiceImplTest {
     }
 
 
+    @Test
+    void testFetchAndSaveLocation_FromGeoIndex() {
+        when(pinCodeLocationRepository.save(any(PinCodeLocation.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        PinCodeLocation result = weatherServiceImpl.fetchAndSaveLocation("654321");
+
+        assertEquals(12.97, result.getLatitude());
+        assertEquals(77.59, result.getLongitude());
+        assertEquals("Bengaluru", result.getCityName());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     public void testFetchWeatherData_Success() {
         // Prepare test data
@@ -181,46 +597,8 @@ class WeatherServiceImplTest {
         LocalDate forDate = LocalDate.now();
 
         // Mock the response from external weather API
-        Map<String, Object> responseBody = new HashMap<>();
-        responseBody.put("coord", Map.of("lat", 12.34, "lon", 56.78));
-        responseBody.put("sys", Map.of("country", "IN", "sunrise", 12345, "sunset", 67890));
-        responseBody.put("weather", List.of(Map.of("description", "clear sky", "icon", "01d")));
-        responseBody.put("main", Map.of("temp", 25.0, "feels_like", 23.0, "humidity", 60, "pressure", 1012));
-        responseBody.put("visibility", 10000);
-        responseBody.put("wind", Map.of("speed", 5.5));
-        responseBody.put("clouds", Map.of("all", 20));
-        responseBody.put("name", "CityName");
-        responseBody.put("timezone", 19800);
-
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class))).thenReturn(response);
-
-        // Mock the save calls to repositories
-        WeatherInfo savedWeatherInfo = WeatherInfo.builder()
-                .pinCode(pinCode)
-                .date(forDate)
-                .country("IN")
-                .sunriseTime(12345)
-                .sunsetTime(67890)
-                .timezoneOffset(19800)
-                .location(location)
-                .build();
-
-        WeatherDetail savedWeatherDetail = WeatherDetail.builder()
-                .main("clear sky")
-                .description("clear sky")
-                .icon("01d")
-                .temp(25.0)
-                .feelsLike(23.0)
-                .humidity(60)
-                .pressure(1012)
-                .cloudiness(20)
-                .windSpeed(5.5)
-                .visibility(10000)
-                .build();
-
-        when(weatherInfoRepository.save(any(WeatherInfo.class))).thenReturn(savedWeatherInfo);
-        when(weatherDetailRepository.save(any(WeatherDetail.class))).thenReturn(savedWeatherDetail);
+        ResponseEntity<CurrentWeatherResponse> response = new ResponseEntity<>(weatherResponse(), HttpStatus.OK);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(CurrentWeatherResponse.class), anyMap())).thenReturn(response);
 
         // Call the method under test
         WeatherInfo result = weatherServiceImpl.fetchWeatherData(location, pinCode, forDate);
@@ -238,9 +616,21 @@ class WeatherServiceImplTest {
         assertEquals(25.0, detail.getTemp());
         assertEquals("01d", detail.getIcon());
 
-        // Verify repository interactions
-        verify(weatherInfoRepository).save(any(WeatherInfo.class));
-        verify(weatherDetailRepository).save(any(WeatherDetail.class));
+        // Details are linked for the cascade, nothing is written yet
+        assertSame(result, detail.getWeatherInfo());
+        verifyNoInteractions(weatherInfoWriter, weatherInfoRepository);
     }
 
+    private static CurrentWeatherResponse weatherResponse() {
+        return new CurrentWeatherResponse(
+                new CurrentWeatherResponse.Coord(12.34, 56.78),
+                List.of(new CurrentWeatherResponse.Weather(null, "clear sky", "01d")),
+                new CurrentWeatherResponse.Main(25.0, 23.0, 1012, 60),
+                10000,
+                new CurrentWeatherResponse.Wind(5.5),
+                new CurrentWeatherResponse.Clouds(20),
+                new CurrentWeatherResponse.Sys("IN", 12345, 67890),
+                19800,
+                "CityName");
+    }
 }
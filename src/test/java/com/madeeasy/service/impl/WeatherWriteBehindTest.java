@@ -0,0 +1,204 @@
+package com.madeeasy.service.impl;
+
+import com.madeeasy.cache.WeatherCacheKey;
+import com.madeeasy.cache.WeatherInfoCache;
+import com.madeeasy.cache.WeatherResponseCache;
+import com.madeeasy.config.WeatherProperties;
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherInfo;
+import com.madeeasy.event.WeatherInfoSavedEvent;
+import com.madeeasy.repository.PinCodeLocationRepository;
+import com.madeeasy.repository.WeatherInfoRepository;
+import com.madeeasy.support.WeatherFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {"weather.write-behind.enabled=true", "weather.write-behind.batch-size=3",
+        "weather.write-behind.retry-backoff=10ms"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WeatherInfoWriter.class, WeatherWriteBehind.class, WeatherWriteBehindTest.Config.class})
+class WeatherWriteBehindTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 9);
+
+    @Autowired
+    private WeatherWriteBehind writeBehind;
+
+    @SpyBean
+    private WeatherInfoWriter weatherInfoWriter;
+
+    @Autowired
+    private WeatherInfoRepository weatherInfoRepository;
+
+    @Autowired
+    private PinCodeLocationRepository pinCodeLocationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SavedEvents events;
+
+    @MockBean
+    private WeatherInfoCache weatherInfoCache;
+
+    @MockBean
+    private WeatherResponseCache weatherResponseCache;
+
+    private PinCodeLocation location;
+
+    @BeforeEach
+    void setUp() {
+        // The context is shared between tests and a test may have stopped the writer
+        writeBehind.start();
+        events.clear();
+        location = pinCodeLocationRepository.save(WeatherFixtures.location("721151"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherInfoRepository.deleteAll();
+        pinCodeLocationRepository.deleteAll();
+    }
+
+    @Test
+    void testQueuedRowsAreStoredInBatchesAndFlushedOnStop() {
+        List<WeatherInfo> queued = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            WeatherInfo weatherInfo = weatherInfo(DATE.plusDays(day));
+            assertTrue(writeBehind.offer(weatherInfo));
+            queued.add(weatherInfo);
+        }
+
+        writeBehind.stop();
+
+        assertEquals(0, writeBehind.pending());
+        assertEquals(7, weatherInfoRepository.count());
+        assertEquals(7, rows("written"));
+        // At most three rows per transaction
+        assertTrue(meterRegistry.get("weather.write.flush").tag("outcome", "success").timer().count() >= 3);
+        // What callers were handed is left alone, the stored copies are announced with their ids
+        assertTrue(queued.stream().allMatch(weatherInfo -> weatherInfo.getId() == null));
+        List<WeatherInfo> announced = events.stream().map(WeatherInfoSavedEvent::weatherInfo).toList();
+        assertEquals(7, announced.size());
+        assertTrue(announced.stream().allMatch(weatherInfo -> weatherInfo.getId() != null));
+
+        // Once stopped, callers store their rows themselves
+        assertFalse(writeBehind.offer(weatherInfo(DATE.minusDays(1))));
+    }
+
+    @Test
+    void testRowStoredElsewhereFirstIsSkippedAndTheStoredOneAnnounced() {
+        WeatherInfo stored = weatherInfoWriter.save(weatherInfo(DATE));
+
+        assertTrue(writeBehind.offer(weatherInfo(DATE)));
+        assertTrue(writeBehind.offer(weatherInfo(DATE.plusDays(1))));
+        writeBehind.stop();
+
+        assertEquals(2, weatherInfoRepository.count());
+        assertEquals(1, rows("duplicate"));
+        assertTrue(events.stream()
+                .anyMatch(event -> stored.getId().equals(event.weatherInfo().getId())));
+    }
+
+    @Test
+    void testFailedBatchIsRetriedUntilItIsStored() {
+        double errorsBefore = flushes("error");
+        doThrow(new QueryTimeoutException("database busy"))
+                .doThrow(new QueryTimeoutException("database busy"))
+                .doCallRealMethod()
+                .when(weatherInfoWriter).saveAll(anyList());
+
+        assertTrue(writeBehind.offer(weatherInfo(DATE)));
+        writeBehind.stop();
+
+        verify(weatherInfoWriter, times(3)).saveAll(anyList());
+        assertEquals(1, weatherInfoRepository.count());
+        assertEquals(2, flushes("error") - errorsBefore);
+        assertEquals(1, events.size());
+        verify(weatherInfoCache, never()).invalidate(any());
+    }
+
+    @Test
+    void testBatchStillFailingAfterMaxAttemptsIsDroppedFromTheCaches() {
+        double droppedBefore = rows("dropped");
+        doThrow(new QueryTimeoutException("database busy")).when(weatherInfoWriter).saveAll(anyList());
+
+        assertTrue(writeBehind.offer(weatherInfo(DATE)));
+        writeBehind.stop();
+
+        // max-attempts defaults to 3
+        verify(weatherInfoWriter, times(3)).saveAll(anyList());
+        assertEquals(0, weatherInfoRepository.count());
+        assertEquals(1, rows("dropped") - droppedBefore);
+        assertTrue(events.isEmpty());
+        // The next request loads the day again instead of being served a row that was never stored
+        verify(weatherInfoCache).invalidate(new WeatherCacheKey("721151", DATE));
+        verify(weatherResponseCache).invalidate(new WeatherCacheKey("721151", DATE));
+    }
+
+    private double flushes(String outcome) {
+        return meterRegistry.get("weather.write.flush").tag("outcome", outcome).timer().count();
+    }
+
+    private double rows(String outcome) {
+        return meterRegistry.get("weather.write.rows").tag("outcome", outcome).counter().count();
+    }
+
+    private WeatherInfo weatherInfo(LocalDate date) {
+        return WeatherFixtures.weatherInfo(location, date, "Clear");
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        // Bound from the test properties above
+        @Bean
+        WeatherProperties weatherProperties() {
+            return new WeatherProperties();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        SavedEvents savedEvents() {
+            return new SavedEvents();
+        }
+    }
+
+    // Events come from the writer thread, which recorded application events would not see
+    static class SavedEvents extends CopyOnWriteArrayList<WeatherInfoSavedEvent> {
+
+        @EventListener
+        public void onWeatherInfoSaved(WeatherInfoSavedEvent event) {
+            add(event);
+        }
+    }
+}
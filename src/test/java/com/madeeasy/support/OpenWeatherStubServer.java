@@ -0,0 +1,125 @@
+package com.madeeasy.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the OpenWeather geocoding and current weather endpoints.
+ * Serves canned payloads shaped like the real API from {@code /geo/1.0/zip} and {@code /data/2.5/weather}
+ * and counts how many requests each endpoint received.
+ */
+public class OpenWeatherStubServer implements AutoCloseable {
+
+    public static final String WEATHER_BODY = """
+            {"coord":{"lon":87.7745,"lat":22.4586},
+             "weather":[{"id":800,"main":"Clear","description":"clear sky","icon":"01d"}],
+             "base":"stations",
+             "main":{"temp":28.2,"feels_like":29.4,"temp_min":28.2,"temp_max":28.2,"pressure":1015,"humidity":57,"sea_level":1015,"grnd_level":1014},
+             "visibility":10000,
+             "wind":{"speed":3.31,"deg":12,"gust":4.1},
+             "clouds":{"all":0},
+             "dt":1731140000,
+             "sys":{"country":"IN","sunrise":1731111472,"sunset":1731151661},
+             "timezone":19800,"id":1254661,"name":"Tamluk","cod":200}
+            """;
+
+    public static final String GEOCODING_BODY = """
+            {"zip":"721151","name":"Tamluk","lat":22.4586,"lon":87.7745,"country":"IN"}
+            """;
+
+    static {
+        // Without TCP_NODELAY the split header/body writes hit the 40ms delayed-ACK stall on every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger weatherRequests = new AtomicInteger();
+    private final AtomicInteger geocodingRequests = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile int status = 200;
+    private volatile double errorRate;
+
+    public OpenWeatherStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/data/2.5/weather", exchange -> respond(exchange, weatherRequests, WEATHER_BODY));
+        server.createContext("/geo/1.0/zip", exchange -> respond(exchange, geocodingRequests, GEOCODING_BODY));
+    }
+
+    public OpenWeatherStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String weatherUrl() {
+        return baseUrl() + "/data/2.5/weather";
+    }
+
+    public String geocodingUrl() {
+        return baseUrl() + "/geo/1.0/zip";
+    }
+
+    public OpenWeatherStubServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Answer every request with this status and an OpenWeather style error body, 200 restores the payloads
+    public OpenWeatherStubServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    // Answer this fraction of requests, picked at random, with a 500
+    public OpenWeatherStubServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public int weatherRequests() {
+        return weatherRequests.get();
+    }
+
+    public int geocodingRequests() {
+        return geocodingRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange, AtomicInteger counter, String body) throws IOException {
+        counter.incrementAndGet();
+        try (exchange) {
+            // Drain the request so the connection can be reused
+            exchange.getRequestBody().readAllBytes();
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            int code = status == 200 && ThreadLocalRandom.current().nextDouble() < errorRate ? 500 : status;
+            String payload = code == 200 ? body : "{\"cod\":" + code + ",\"message\":\"stubbed failure\"}";
+            byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
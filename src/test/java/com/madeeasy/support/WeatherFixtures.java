@@ -0,0 +1,51 @@
+package com.madeeasy.support;
+
+import com.madeeasy.entity.PinCodeLocation;
+import com.madeeasy.entity.WeatherDetail;
+import com.madeeasy.entity.WeatherInfo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Unsaved rows for the repository level tests. Every location sits on Tamluk's coordinates; the weather belongs to
+ * the location's pin code and carries one detail per {@code main} given.
+ */
+public final class WeatherFixtures {
+
+    private WeatherFixtures() {
+    }
+
+    public static PinCodeLocation location(String pinCode) {
+        return PinCodeLocation.builder().pinCode(pinCode).latitude(22.4586).longitude(87.7745).build();
+    }
+
+    // Two details, so a fetch join that repeats the day shows up
+    public static WeatherInfo weatherInfo(PinCodeLocation location, LocalDate date) {
+        return weatherInfo(location, date, "Clear", "Haze");
+    }
+
+    public static WeatherInfo weatherInfo(PinCodeLocation location, LocalDate date, String... mains) {
+        WeatherInfo weatherInfo = WeatherInfo.builder()
+                .pinCode(location.getPinCode())
+                .date(date)
+                .country("IN")
+                .location(location)
+                .weatherDetails(new ArrayList<>())
+                .build();
+        for (String main : mains) {
+            weatherInfo.getWeatherDetails().add(WeatherDetail.builder().main(main).weatherInfo(weatherInfo).build());
+        }
+        return weatherInfo;
+    }
+
+    /**
+     * Hibernate's counters; the test has to run with {@link DataJpaStatisticsTest} for them to be collected.
+     */
+    public static Statistics statistics(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}